@@ -0,0 +1,50 @@
+package com.simtechdata;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * IdAllocator hands out the stageIDs that Switcher needs for itself, such as
+ * the ID of the default Stage. They come from their own namespace that starts
+ * at Integer.MIN_VALUE and counts up, so they stay well clear of the IDs you
+ * pick in your code. Released IDs go on a free list and get used again first,
+ * which keeps both allocate and release constant time no matter how many
+ * stages come and go.
+ * This class is private to Switcher.
+ */
+final class IdAllocator {
+
+	private static final int    FIRST_ID  = Integer.MIN_VALUE;
+	private final        BitSet reserved  = new BitSet();
+	private              int[]  freeIndex = new int[16];
+	private              int    freeCount;
+	private              int    nextIndex;
+
+	int allocate() {
+		int index = (freeCount > 0) ? freeIndex[--freeCount] : nextIndex++;
+		reserved.set(index);
+		return FIRST_ID + index;
+	}
+
+	boolean isReserved(int id) {
+		long index = (long) id - FIRST_ID;
+		return index < nextIndex && reserved.get((int) index);
+	}
+
+	void release(int id) {
+		if (isReserved(id)) {
+			int index = (int) ((long) id - FIRST_ID);
+			reserved.clear(index);
+			if (freeCount == freeIndex.length) freeIndex = Arrays.copyOf(freeIndex, freeCount * 2);
+			freeIndex[freeCount++] = index;
+		}
+	}
+
+	/**
+	 * Gives up an ID for good without putting it back on the free list,
+	 * for when the ID has been claimed by your own code.
+	 */
+	void retire(int id) {
+		if (isReserved(id)) reserved.clear((int) ((long) id - FIRST_ID));
+	}
+}
@@ -0,0 +1,166 @@
+package com.simtechdata;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * IntMap is a small open addressing hash map keyed by primitive ints.
+ * Switcher looks up scenes and stages by ID on every call, and a
+ * HashMap&lt;Integer, ...&gt; boxes the ID each time. This map uses
+ * linear probing over parallel arrays and backward shift deletion,
+ * so lookups never allocate. Null values are not allowed, a null
+ * slot is what marks it as empty.
+ * This class is private to Switcher.
+ */
+final class IntMap<V> implements Iterable<V> {
+
+	@FunctionalInterface
+	interface EntryConsumer<V> {
+		void accept(int key, V value);
+	}
+
+	private static final int      MIN_CAPACITY = 16;
+	private              int[]    keys;
+	private              Object[] values;
+	private              int      mask;
+	private              int      size;
+	private              int      resizeAt;
+
+	IntMap() {
+		allocate(MIN_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		keys     = new int[capacity];
+		values   = new Object[capacity];
+		mask     = capacity - 1;
+		resizeAt = (capacity * 3) / 4;
+	}
+
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int indexOf(int key) {
+		int index = hash(key) & mask;
+		while (values[index] != null) {
+			if (keys[index] == key) return index;
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	V get(int key) {
+		int index = indexOf(key);
+		return index < 0 ? null : (V) values[index];
+	}
+
+	boolean containsKey(int key) {return indexOf(key) >= 0;}
+
+	@SuppressWarnings("unchecked")
+	V put(int key, V value) {
+		Objects.requireNonNull(value);
+		int index = hash(key) & mask;
+		while (values[index] != null) {
+			if (keys[index] == key) {
+				V old = (V) values[index];
+				values[index] = value;
+				return old;
+			}
+			index = (index + 1) & mask;
+		}
+		keys[index]   = key;
+		values[index] = value;
+		if (++size > resizeAt) rehash(keys.length * 2);
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	V remove(int key) {
+		int index = indexOf(key);
+		if (index < 0) return null;
+		V   old  = (V) values[index];
+		int gap  = index;
+		int next = index;
+		while (true) {
+			next = (next + 1) & mask;
+			if (values[next] == null) break;
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap]   = keys[next];
+				values[gap] = values[next];
+				gap         = next;
+			}
+		}
+		values[gap] = null;
+		size--;
+		return old;
+	}
+
+	private void rehash(int capacity) {
+		int[]    oldKeys   = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int index = hash(oldKeys[i]) & mask;
+				while (values[index] != null) index = (index + 1) & mask;
+				keys[index]   = oldKeys[i];
+				values[index] = oldValues[i];
+			}
+		}
+	}
+
+	int size()         {return size;}
+
+	boolean isEmpty()  {return size == 0;}
+
+	void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Copy of the keys, so the map can be changed while walking through them.
+	 */
+	int[] keys() {
+		int[] response = new int[size];
+		int   count    = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) response[count++] = keys[i];
+		}
+		return response;
+	}
+
+	@SuppressWarnings("unchecked")
+	void forEach(EntryConsumer<? super V> action) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) action.accept(keys[i], (V) values[i]);
+		}
+	}
+
+	@Override public Iterator<V> iterator() {
+		return new Iterator<V>() {
+			private int index = advance(0);
+
+			private int advance(int from) {
+				while (from < values.length && values[from] == null) from++;
+				return from;
+			}
+
+			@Override public boolean hasNext() {return index < values.length;}
+
+			@SuppressWarnings("unchecked")
+			@Override public V next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				V value = (V) values[index];
+				index = advance(index + 1);
+				return value;
+			}
+		};
+	}
+}
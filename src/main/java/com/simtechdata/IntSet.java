@@ -0,0 +1,124 @@
+package com.simtechdata;
+
+import java.util.function.IntConsumer;
+
+/**
+ * IntSet is the set counterpart to IntMap. It holds primitive ints
+ * in an open addressing table with linear probing, so adding, removing
+ * and checking an ID never allocates.
+ * This class is private to Switcher.
+ */
+final class IntSet {
+
+	private static final int       MIN_CAPACITY = 8;
+	private              int[]     keys;
+	private              boolean[] used;
+	private              int       mask;
+	private              int       size;
+	private              int       resizeAt;
+
+	IntSet() {
+		allocate(MIN_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		keys     = new int[capacity];
+		used     = new boolean[capacity];
+		mask     = capacity - 1;
+		resizeAt = (capacity * 3) / 4;
+	}
+
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int indexOf(int key) {
+		int index = hash(key) & mask;
+		while (used[index]) {
+			if (keys[index] == key) return index;
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	boolean contains(int key) {return indexOf(key) >= 0;}
+
+	boolean add(int key) {
+		int index = hash(key) & mask;
+		while (used[index]) {
+			if (keys[index] == key) return false;
+			index = (index + 1) & mask;
+		}
+		keys[index] = key;
+		used[index] = true;
+		if (++size > resizeAt) rehash(keys.length * 2);
+		return true;
+	}
+
+	boolean remove(int key) {
+		int index = indexOf(key);
+		if (index < 0) return false;
+		int gap  = index;
+		int next = index;
+		while (true) {
+			next = (next + 1) & mask;
+			if (!used[next]) break;
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				gap       = next;
+			}
+		}
+		used[gap] = false;
+		size--;
+		return true;
+	}
+
+	private void rehash(int capacity) {
+		int[]     oldKeys = keys;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int index = hash(oldKeys[i]) & mask;
+				while (used[index]) index = (index + 1) & mask;
+				keys[index] = oldKeys[i];
+				used[index] = true;
+			}
+		}
+	}
+
+	int size()        {return size;}
+
+	boolean isEmpty() {return size == 0;}
+
+	/**
+	 * Returns any one of the ints in the set, or the given default if it is empty.
+	 */
+	int first(int defaultValue) {
+		if (size == 0) return defaultValue;
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) return keys[i];
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Copy of the contents, so the set can be changed while walking through them.
+	 */
+	int[] toArray() {
+		int[] response = new int[size];
+		int   count    = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) response[count++] = keys[i];
+		}
+		return response;
+	}
+
+	void forEach(IntConsumer action) {
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) action.accept(keys[i]);
+		}
+	}
+}
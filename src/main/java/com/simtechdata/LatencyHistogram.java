@@ -0,0 +1,100 @@
+package com.simtechdata;
+
+/**
+ * LatencyHistogram counts how long something took, in microseconds, using a fixed
+ * set of buckets laid out the way HdrHistogram does it. Values below 16 get a bucket
+ * each, and every power of two above that is split into 16 equal buckets, so a value
+ * is never off by more than about 6 percent, from one microsecond up to days, in the
+ * same 2.4 KB no matter how many values are recorded. Recording is constant time and
+ * never allocates.<BR><BR>
+ * Switcher records on the JavaFX Application Thread. Reading from any other thread
+ * is safe, and gives the counts as they were at that moment.
+ */
+public final class LatencyHistogram {
+
+	private static final int    SUB_BUCKET_BITS = 4;
+	private static final int    SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+	private static final int    MAX_EXPONENT    = 40;
+	private static final int    BUCKETS         = SUB_BUCKETS + ((MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+	private final        int[]  counts          = new int[BUCKETS];
+	private              long   totalCount;
+	private              long   totalMicros;
+	private              long   minMicros       = Long.MAX_VALUE;
+	private              long   maxMicros;
+
+	LatencyHistogram() {}
+
+	private static int bucketOf(long micros) {
+		if (micros < SUB_BUCKETS) return (int) micros;
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+		int shift    = exponent - SUB_BUCKET_BITS;
+		int sub      = (int) Math.min((micros >>> shift) - SUB_BUCKETS, SUB_BUCKETS - 1);
+		return SUB_BUCKETS + (shift * SUB_BUCKETS) + sub;
+	}
+
+	/**
+	 * The largest value that lands in the bucket, which is what percentiles report,
+	 * so they lean toward slow rather than fast.
+	 */
+	private static long highestValueIn(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+		int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+		int sub   = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+	}
+
+	synchronized void record(long micros) {
+		if (micros < 0) micros = 0;
+		counts[bucketOf(micros)]++;
+		totalCount++;
+		totalMicros += micros;
+		if (micros < minMicros) minMicros = micros;
+		if (micros > maxMicros) maxMicros = micros;
+	}
+
+	synchronized void reset() {
+		java.util.Arrays.fill(counts, 0);
+		totalCount  = 0;
+		totalMicros = 0;
+		minMicros   = Long.MAX_VALUE;
+		maxMicros   = 0;
+	}
+
+	/**
+	 * @return how many times were recorded
+	 */
+	public synchronized long getCount() {return totalCount;}
+
+	/**
+	 * @return the shortest time recorded, in microseconds, or 0 if nothing was recorded
+	 */
+	public synchronized long getMinMicros() {return (totalCount == 0) ? 0 : minMicros;}
+
+	/**
+	 * @return the longest time recorded, in microseconds
+	 */
+	public synchronized long getMaxMicros() {return maxMicros;}
+
+	/**
+	 * @return the average of every time recorded, in microseconds
+	 */
+	public synchronized double getMeanMicros() {return (totalCount == 0) ? 0 : (double) totalMicros / totalCount;}
+
+	/**
+	 * getPercentileMicros tells you how long the given share of the recorded times
+	 * took at most. getPercentileMicros(99) is the time that 99 percent of them stayed under.
+	 *
+	 * @param percentile from 0 to 100
+	 * @return the time in microseconds, never more than getMaxMicros
+	 */
+	public synchronized long getPercentileMicros(double percentile) {
+		if (totalCount == 0) return 0;
+		long wanted = Math.max(1, (long) Math.ceil((Math.min(100, Math.max(0, percentile)) / 100.0) * totalCount));
+		long seen   = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts[bucket];
+			if (seen >= wanted) return Math.min(highestValueIn(bucket), maxMicros);
+		}
+		return maxMicros;
+	}
+}
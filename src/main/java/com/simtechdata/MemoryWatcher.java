@@ -0,0 +1,59 @@
+package com.simtechdata;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * MemoryWatcher asks the JVM to tell us when the old generation of the heap
+ * gets past a given fraction of its maximum size. Only the heap pools that
+ * support a usage threshold are watched, which in HotSpot is the tenured
+ * (old gen) pool no matter which collector is in use. Where the pool allows
+ * it, the threshold is checked against the usage left after a collection,
+ * so garbage that is about to be collected does not set it off.
+ * This class is private to Switcher.
+ */
+final class MemoryWatcher {
+
+	private static NotificationListener listener;
+
+	private MemoryWatcher() {}
+
+	static synchronized void watch(double usageFraction, Runnable onPressure) {
+		stop();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			long max = pool.getUsage().getMax();
+			if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported() && max > 0) {
+				long threshold = (long) (max * usageFraction);
+				if (pool.isCollectionUsageThresholdSupported()) {pool.setCollectionUsageThreshold(threshold);}
+				else {pool.setUsageThreshold(threshold);}
+			}
+		}
+		listener = (Notification notification, Object handback) -> {
+			String type = notification.getType();
+			if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type) || MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)) {
+				onPressure.run();
+			}
+		};
+		((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(listener, null, null);
+	}
+
+	static synchronized void stop() {
+		if (listener == null) return;
+		try {
+			((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(listener);
+		}
+		catch (Exception ignored) {}
+		listener = null;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()) {
+				if (pool.isCollectionUsageThresholdSupported()) {pool.setCollectionUsageThreshold(0);}
+				else {pool.setUsageThreshold(0);}
+			}
+		}
+	}
+}
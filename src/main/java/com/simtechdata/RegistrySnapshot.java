@@ -0,0 +1,54 @@
+package com.simtechdata;
+
+import java.util.Arrays;
+
+/**
+ * RegistrySnapshot is a frozen copy of what other threads most often ask
+ * Switcher about: which scenes are on screen, and whether there is history
+ * to go back or forward to. The JavaFX Application Thread builds a new one
+ * whenever that changes and publishes it through a single volatile field, so
+ * a reader never takes a lock and never sees a change that is only half done.
+ * The showing sceneIDs are kept sorted, which lets isShowing use a binary search
+ * without the snapshot having to hold anything bigger than the array itself.
+ * This class is private to Switcher.
+ */
+final class RegistrySnapshot {
+
+	static final         RegistrySnapshot EMPTY = new RegistrySnapshot(new int[0], 0, 0, false, false);
+	private final        int[]            showingSceneIDs;
+	private final        int              sceneCount;
+	private final        int              stageCount;
+	private final        boolean          hasHistory;
+	private final        boolean          hasNextScene;
+
+	/**
+	 * @param showingSceneIDs must already be sorted and is not copied
+	 */
+	RegistrySnapshot(int[] showingSceneIDs, int sceneCount, int stageCount, boolean hasHistory, boolean hasNextScene) {
+		this.showingSceneIDs = showingSceneIDs;
+		this.sceneCount      = sceneCount;
+		this.stageCount      = stageCount;
+		this.hasHistory      = hasHistory;
+		this.hasNextScene    = hasNextScene;
+	}
+
+	static RegistrySnapshot of(IntSet showingScenes, int sceneCount, int stageCount, boolean hasHistory, boolean hasNextScene) {
+		int[] showing = showingScenes.toArray();
+		Arrays.sort(showing);
+		return new RegistrySnapshot(showing, sceneCount, stageCount, hasHistory, hasNextScene);
+	}
+
+	boolean isShowing(int sceneID) {return Arrays.binarySearch(showingSceneIDs, sceneID) >= 0;}
+
+	boolean anyShowing()            {return showingSceneIDs.length > 0;}
+
+	int[] showingSceneIDs()         {return showingSceneIDs.clone();}
+
+	int sceneCount()                {return sceneCount;}
+
+	int stageCount()                {return stageCount;}
+
+	boolean hasHistory()            {return hasHistory;}
+
+	boolean hasNextScene()          {return hasNextScene;}
+}
@@ -0,0 +1,39 @@
+package com.simtechdata;
+
+/**
+ * SceneEvents is where Switcher reports what happens to scenes, so that it can
+ * show up in a JDK Flight Recorder recording next to the GC pauses and allocation
+ * samples from the same moment. Flight Recorder events need Java 11, so this is the
+ * Java 8 version, which does nothing and costs nothing once the JIT has inlined it.
+ * The jar is a multi-release jar, and on Java 11 and up the version in
+ * src/main/java11 is loaded instead, which commits the events.<BR><BR>
+ * The methods that take an event were handed it by the matching begin method,
+ * which returns null when no recording wants the event. showRequested is handed
+ * the context instead of a stageID, so the stageID is only looked up when a
+ * recording wants the event.
+ * This class is private to Switcher.
+ */
+final class SceneEvents {
+
+	private SceneEvents() {}
+
+	static void registered(int sceneID, int stageID) {}
+
+	static void showRequested(SwitcherContext context, int sceneID) {}
+
+	static Object beginShow() {return null;}
+
+	static void shown(Object event, int sceneID, int stageID, boolean fromHistory) {}
+
+	static Object beginBuild() {return null;}
+
+	static void built(Object event, int sceneID, int stageID, int nodeCount, boolean firstBuild) {}
+
+	static Object beginHide() {return null;}
+
+	static void hidden(Object event, int sceneID, int stageID) {}
+
+	static void historyMoved(int sceneID, int stageID, boolean back) {}
+
+	static void evicted(int sceneID, int stageID, int nodeCount) {}
+}
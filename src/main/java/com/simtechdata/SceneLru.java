@@ -0,0 +1,48 @@
+package com.simtechdata;
+
+/**
+ * SceneLru keeps the built scenes that Switcher could throw away and build
+ * again later, in the order they were last used. It is a doubly linked list
+ * that runs through the SceneObjects themselves, so moving a scene to the
+ * front on every show never allocates.
+ * This class is private to Switcher.
+ */
+final class SceneLru {
+
+	private SceneObject mostRecent;
+	private SceneObject leastRecent;
+	private int         size;
+	private long        nodeCount;
+
+	void touch(SceneObject sceneObject) {
+		if (sceneObject == mostRecent) return;
+		remove(sceneObject);
+		sceneObject.lruNewer = null;
+		sceneObject.lruOlder = mostRecent;
+		if (mostRecent != null) mostRecent.lruNewer = sceneObject;
+		mostRecent = sceneObject;
+		if (leastRecent == null) leastRecent = sceneObject;
+		sceneObject.lruLinked = true;
+		size++;
+		nodeCount += sceneObject.getNodeCount();
+	}
+
+	void remove(SceneObject sceneObject) {
+		if (!sceneObject.lruLinked) return;
+		if (sceneObject.lruNewer != null) {sceneObject.lruNewer.lruOlder = sceneObject.lruOlder;}
+		else {mostRecent = sceneObject.lruOlder;}
+		if (sceneObject.lruOlder != null) {sceneObject.lruOlder.lruNewer = sceneObject.lruNewer;}
+		else {leastRecent = sceneObject.lruNewer;}
+		sceneObject.lruNewer  = null;
+		sceneObject.lruOlder  = null;
+		sceneObject.lruLinked = false;
+		size--;
+		nodeCount -= sceneObject.getNodeCount();
+	}
+
+	SceneObject leastRecent() {return leastRecent;}
+
+	int size()                {return size;}
+
+	long nodeCount()          {return nodeCount;}
+}
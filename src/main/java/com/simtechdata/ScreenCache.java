@@ -0,0 +1,99 @@
+package com.simtechdata;
+
+import javafx.collections.ListChangeListener;
+import javafx.event.EventHandler;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Screen;
+import javafx.stage.Window;
+
+import java.util.List;
+
+/**
+ * ScreenCache keeps the visual bounds of every screen so that Switcher
+ * does not have to ask the native layer for them each time a Scene is
+ * centered. JavaFX replaces the contents of Screen.getScreens() whenever
+ * a monitor is added, removed or reconfigured, so a change to that list
+ * is all it takes to know the cache is stale.
+ * This class is private to Switcher and must only be used on the
+ * JavaFX Application Thread.
+ */
+final class ScreenCache {
+
+	private static Rectangle2D   primaryBounds;
+	private static Rectangle2D[] screenBounds;
+	private static boolean       listening = false;
+	private static boolean       pointerSeen = false;
+	private static double        pointerX;
+	private static double        pointerY;
+
+	/**
+	 * The one mouse event filter Switcher puts on the Stages it shows scenes on,
+	 * which remembers where the pointer was last seen on the screen.
+	 */
+	static final EventHandler<MouseEvent> POINTER_TRACKER = event -> {
+		pointerX    = event.getScreenX();
+		pointerY    = event.getScreenY();
+		pointerSeen = true;
+	};
+
+	private ScreenCache() {}
+
+	private static void load() {
+		if (!listening) {
+			Screen.getScreens().addListener((ListChangeListener<Screen>) change -> invalidate());
+			listening = true;
+		}
+		if (screenBounds == null) {
+			List<Screen> screens = Screen.getScreens();
+			Rectangle2D[] bounds = new Rectangle2D[screens.size()];
+			for (int i = 0; i < bounds.length; i++) {
+				bounds[i] = screens.get(i).getVisualBounds();
+			}
+			primaryBounds = Screen.getPrimary().getVisualBounds();
+			screenBounds  = bounds;
+		}
+	}
+
+	static void invalidate() {
+		primaryBounds = null;
+		screenBounds  = null;
+	}
+
+	static Rectangle2D primary() {
+		load();
+		return primaryBounds;
+	}
+
+	/**
+	 * Visual bounds of the screen that contains the point,
+	 * or the primary screen when no screen does.
+	 */
+	static Rectangle2D containing(double x, double y) {
+		load();
+		for (Rectangle2D bounds : screenBounds) {
+			if (bounds.contains(x, y)) return bounds;
+		}
+		return primaryBounds;
+	}
+
+	/**
+	 * Visual bounds of the screen that holds the center of the window.
+	 */
+	static Rectangle2D containing(Window window) {
+		if (window == null || !window.isShowing()) return primary();
+		return containing(window.getX() + (window.getWidth() / 2), window.getY() + (window.getHeight() / 2));
+	}
+
+	/**
+	 * Visual bounds of the screen the mouse pointer is on. JavaFX 8 has no
+	 * public way to read the pointer location outside of its own windows, so
+	 * this is where POINTER_TRACKER last saw it over a Stage Switcher manages.
+	 * Until it has been seen, the screen of the focused window is used, and
+	 * the primary screen when no window has focus.
+	 */
+	static Rectangle2D underMouse(Window focused) {
+		if (pointerSeen) return containing(pointerX, pointerY);
+		return containing(focused);
+	}
+}
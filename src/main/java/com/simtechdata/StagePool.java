@@ -0,0 +1,113 @@
+package com.simtechdata;
+
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+import java.util.ArrayDeque;
+
+/**
+ * StagePool keeps Stages that Switcher created and no longer needs, so the next
+ * Stage it has to create can be taken from here instead. The style and modality
+ * of a Stage can only be set before it is first shown, so the idle Stages are
+ * kept apart by style and modality, in an IntMap keyed by the two ordinals.
+ * Only Stages that were never given an owner are kept. Before one goes into the
+ * pool, reset clears what Switcher itself sets on it, along with the setOnXxx
+ * handlers. It cannot find handlers added with addEventHandler or addEventFilter,
+ * listeners, properties or user data, so Switcher never gives back a Stage it
+ * has handed out, whether from getStage, getStageForScene or getWindow, or
+ * through a showSceneAsync or hideSceneAsync future.
+ * This class is private to Switcher and must only be used on the
+ * JavaFX Application Thread.
+ */
+final class StagePool {
+
+	static final  int                       DEFAULT_IDLE_PER_KEY = 8;
+	private final IntMap<ArrayDeque<Stage>> idleStages           = new IntMap<>();
+	private       int                       maxIdlePerKey        = DEFAULT_IDLE_PER_KEY;
+	private       volatile long             hits;
+	private       volatile long             misses;
+
+	private static int key(StageStyle style, Modality modality) {
+		return (style.ordinal() * Modality.values().length) + modality.ordinal();
+	}
+
+	Stage borrow(StageStyle style, Modality modality) {
+		if (style == null) style = StageStyle.DECORATED;
+		if (modality == null) modality = Modality.NONE;
+		ArrayDeque<Stage> stages = idleStages.get(key(style, modality));
+		if (stages != null && !stages.isEmpty()) {
+			hits++;
+			return stages.pop();
+		}
+		misses++;
+		return create(style, modality);
+	}
+
+	private static Stage create(StageStyle style, Modality modality) {
+		Stage stage = new Stage();
+		if (style != StageStyle.DECORATED) stage.initStyle(style);
+		if (modality != Modality.NONE) stage.initModality(modality);
+		return stage;
+	}
+
+	/**
+	 * Takes a Stage back if there is room for it. Returns false when the
+	 * Stage cannot be used again, in which case it is left alone.
+	 */
+	boolean giveBack(Stage stage) {
+		if (stage.isShowing() || stage.getOwner() != null) return false;
+		int               key    = key(stage.getStyle(), stage.getModality());
+		ArrayDeque<Stage> stages = idleStages.get(key);
+		if (stages == null) {
+			stages = new ArrayDeque<>();
+			idleStages.put(key, stages);
+		}
+		if (stages.size() >= maxIdlePerKey) return false;
+		reset(stage);
+		stages.push(stage);
+		return true;
+	}
+
+	private static void reset(Stage stage) {
+		stage.setScene(null);
+		stage.setTitle("");
+		stage.getIcons().clear();
+		stage.setFullScreen(false);
+		stage.setMaximized(false);
+		stage.setIconified(false);
+		stage.setAlwaysOnTop(false);
+		stage.setResizable(true);
+		stage.setOpacity(1.0);
+		stage.setOnShowing(null);
+		stage.setOnShown(null);
+		stage.setOnHiding(null);
+		stage.setOnHidden(null);
+		stage.setOnCloseRequest(null);
+	}
+
+	void fill(StageStyle style, Modality modality, int count) {
+		if (style == null) style = StageStyle.DECORATED;
+		if (modality == null) modality = Modality.NONE;
+		int               key    = key(style, modality);
+		ArrayDeque<Stage> stages = idleStages.get(key);
+		if (stages == null) {
+			stages = new ArrayDeque<>();
+			idleStages.put(key, stages);
+		}
+		while (stages.size() < Math.min(count, maxIdlePerKey)) {
+			stages.push(create(style, modality));
+		}
+	}
+
+	void setMaxIdlePerKey(int maxIdlePerKey) {
+		this.maxIdlePerKey = maxIdlePerKey;
+		for (ArrayDeque<Stage> stages : idleStages) {
+			while (stages.size() > maxIdlePerKey) stages.pop();
+		}
+	}
+
+	long hits()   {return hits;}
+
+	long misses() {return misses;}
+}
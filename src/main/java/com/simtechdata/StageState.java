@@ -0,0 +1,47 @@
+package com.simtechdata;
+
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * StageState holds what Switcher needs to remember about
+ * a Stage itself, as opposed to one of the scenes shown on it.
+ * This class is private to Switcher.
+ */
+final class StageState {
+
+	/**
+	 * The one Scene this Stage keeps when root swapping is turned on.
+	 */
+	Scene hostScene;
+
+	/**
+	 * The scene Switcher showed on this Stage most recently.
+	 */
+	SceneObject shownScene;
+
+	/**
+	 * The one focus listener this Stage has, for hide on lost focus.
+	 */
+	ChangeListener<Boolean> focusListener;
+
+	/**
+	 * When shows are coalesced, the last show asked for on this Stage
+	 * that has not been applied yet, how it was asked for, and when,
+	 * if metrics were on at the time.
+	 */
+	SceneObject              pendingScene;
+	boolean                  pendingMaximized;
+	boolean                  pendingNewScene;
+	CompletableFuture<Stage> pendingShown;
+	boolean                  pendingTimed;
+	long                     pendingRequested;
+
+	void clearPendingShow() {
+		pendingScene = null;
+		pendingShown = null;
+	}
+}
@@ -13,39 +13,52 @@ package com.simtechdata;
  */
 
 
-import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.event.EventHandler;
-import javafx.geometry.Rectangle2D;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.*;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Switcher is a library that makes managing your scenes literally one line of code easy!
- * It all starts with the addScene() method.
+ * It all starts with the addScene() method.<BR><BR>
+ * The static methods here all work on one default SwitcherContext. If you need more than
+ * one independent set of scenes and stages in the same program, create a SwitcherContext
+ * for each of them.
  */
 @SuppressWarnings({"unused", "SameParameterValue"}) public class Switcher {
 
-	private static final BooleanProperty           visibleWithHistoryProperty = new SimpleBooleanProperty();
-	private static final BooleanProperty           enabledWithHistoryProperty = new SimpleBooleanProperty();
-	private static final Map<Integer, SceneObject> sceneObjectMap             = new HashMap<>();
-	private static final Map<Integer, Stage>       stageMap                   = new HashMap<>();
-	private static final List<Integer>             randomInts                 = new ArrayList<>();
-	private static final boolean                   NEW_SCENE                  = true;
-	private static final boolean                   PRIOR_SCENE                = false;
-	private static final HistoryKeeper             history                    = new HistoryKeeper();
-	private static       boolean                   firstRun                   = true;
-	private static       boolean                   allHiddenOnLostFocus       = false;
-	private static       Integer                   defaultStageID             = getRandom();
-	private static       Integer                   lastSceneIDShowing;
+	/**
+	 * When a Scene has no X and Y of its own, Switcher centers its Stage on a screen.
+	 * CenterOn decides which screen that is.
+	 * <ul>
+	 * <li>PRIMARY_SCREEN - the primary screen, which is what Switcher has always done</li>
+	 * <li>OWNER_SCREEN - the screen that holds the owner of the Stage, or the Stage itself if it is already showing</li>
+	 * <li>MOUSE_SCREEN - the screen that the mouse pointer is on</li>
+	 * </ul>
+	 */
+	public enum CenterOn {
+		PRIMARY_SCREEN,
+		OWNER_SCREEN,
+		MOUSE_SCREEN
+	}
+
+	private static final SwitcherContext defaultContext = new SwitcherContext();
+
+	/**
+	 * Every static method in Switcher works on one default SwitcherContext. Use
+	 * getDefaultContext when part of your code takes a SwitcherContext and should
+	 * work with the same scenes and stages as the static methods.
+	 *
+	 * @return the SwitcherContext behind the static methods
+	 */
+	public static SwitcherContext getDefaultContext() {return defaultContext;}
 
 	/**
 	 * Use this method in situations where you need to assign the primaryStage
@@ -56,9 +69,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @param primaryStage Stage - your programs primaryStage
 	 */
-	public static void init(Stage primaryStage) {
-		setPrimaryStage(primaryStage);
-	}
+	public static void init(Stage primaryStage) {defaultContext.init(primaryStage);}
 
 	/**
 	 * Use this method in situations where you need to assign the primaryStage
@@ -71,11 +82,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *                     the stage style and modality. You can pass null for style or modality
 	 *                     if you only need to set one or the other.
 	 */
-	public static void init(Stage primaryStage, StageStyle initStyle, Modality initModality) {
-		if (initStyle != null) primaryStage.initStyle(initStyle);
-		if (initModality != null) primaryStage.initModality(initModality);
-		setPrimaryStage(primaryStage);
-	}
+	public static void init(Stage primaryStage, StageStyle initStyle, Modality initModality) {defaultContext.init(primaryStage, initStyle, initModality);}
 
 	/**
 	 * Alternate for init - options never hurt anything :-)
@@ -84,9 +91,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @param primaryStage Stage - your programs primaryStage
 	 */
-	public static void setPrimary(Stage primaryStage) {
-		setPrimaryStage(primaryStage);
-	}
+	public static void setPrimary(Stage primaryStage) {defaultContext.setPrimary(primaryStage);}
 
 	/**
 	 * Alternate for init - options never hurt anything :-)
@@ -97,11 +102,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *                     the stage style and modality. You can pass null for style or modality
 	 *                     if you only need to set one or the other.
 	 */
-	public static void setPrimary(Stage primaryStage, StageStyle initStyle, Modality initModality) {
-		if (initStyle != null) primaryStage.initStyle(initStyle);
-		if (initModality != null) primaryStage.initModality(initModality);
-		setPrimaryStage(primaryStage);
-	}
+	public static void setPrimary(Stage primaryStage, StageStyle initStyle, Modality initModality) {defaultContext.setPrimary(primaryStage, initStyle, initModality);}
 
 	/**
 	 * The addScene method is the first step to using Switcher. You maintain
@@ -151,63 +152,68 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param width   Double - sets the stage width for this getScene.
 	 * @param height  Double - sets the stage height for this getScene
 	 */
-	public static void addScene(Integer sceneID, Parent root, Double width, Double height) {
-		addSceneObject(sceneID, null, root, width, height, null);
-	}
+	public static void addScene(Integer sceneID, Parent root, Double width, Double height) {defaultContext.addScene(sceneID, root, width, height);}
 
-	public static void addScene(Integer sceneID, Parent root, Double width, Double height, StageStyle initStyle, Modality initModality) {
-		addSceneObject(sceneID, null, root, width, height, null);
-		stageMap.get(defaultStageID)
-				.initStyle(initStyle);
-		stageMap.get(defaultStageID)
-				.initModality(initModality);
-	}
+	public static void addScene(Integer sceneID, Parent root, Double width, Double height, StageStyle initStyle, Modality initModality) {defaultContext.addScene(sceneID, root, width, height, initStyle, initModality);}
 
-	public static void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height, StageStyle initStyle, Modality initModality) {
-		if (!stageMap.containsKey(stageID)) {
-			Stage stage = new Stage();
-			if (initStyle != null) stage.initStyle(initStyle);
-			if (initModality != null) stage.initModality(initModality);
-			stageMap.put(stageID, stage);
-		}
-		checkForIDConflict(stageID);
-		addSceneObject(sceneID, stageID, root, width, height, null);
-	}
+	public static void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height, StageStyle initStyle, Modality initModality) {defaultContext.addScene(sceneID, stageID, root, width, height, initStyle, initModality);}
 
-	public static void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height, StageStyle initStyle) {
-		checkForIDConflict(stageID);
-		if (!stageMap.containsKey(stageID)) {
-			Stage stage = new Stage();
-			if (initStyle != null) stage.initStyle(initStyle);
-			stageMap.put(stageID, stage);
-		}
-		addSceneObject(sceneID, stageID, root, width, height, null);
-	}
+	public static void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height, StageStyle initStyle) {defaultContext.addScene(sceneID, stageID, root, width, height, initStyle);}
 
-	public static void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height, Modality initModality) {
-		checkForIDConflict(stageID);
-		if (!stageMap.containsKey(stageID)) {
-			Stage stage = new Stage();
-			if (initModality != null) stage.initModality(initModality);
-			stageMap.put(stageID, stage);
-		}
-		addSceneObject(sceneID, stageID, root, width, height, null);
-	}
+	public static void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height, Modality initModality) {defaultContext.addScene(sceneID, stageID, root, width, height, initModality);}
 
-	public static void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height) {
-		checkForIDConflict(stageID);
-		if (!stageMap.containsKey(stageID)) {
-			Stage stage = new Stage();
-			stageMap.put(stageID, stage);
-		}
-		addSceneObject(sceneID, stageID, root, width, height, null);
-	}
+	public static void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height) {defaultContext.addScene(sceneID, stageID, root, width, height);}
 
-	public static void addScene(Integer sceneID, Scene scene, Stage stage) {
-		Integer newStageID = getRandom();
-		stageMap.put(newStageID, stage);
-		addSceneObject(sceneID, newStageID, null, null, null, scene);
-	}
+	public static void addScene(Integer sceneID, Scene scene, Stage stage) {defaultContext.addScene(sceneID, scene, stage);}
+
+	/**
+	 * Lazy version of addScene. Instead of a finished Parent, you give Switcher
+	 * a Supplier that builds the Parent. Switcher will not call it until the
+	 * first time the Scene is shown (or until you ask for it with getScene),
+	 * so registering a large number of scenes at startup costs next to nothing.<BR><BR>
+	 * For example:
+	 * <pre>
+	 * Switcher.addScene(C.SCENE_ONE, () -&gt; new SceneOne().getRoot(), width, height);
+	 * </pre>
+	 *
+	 * @param sceneID     a unique Integer that you provide and maintain in your code
+	 * @param rootFactory a Supplier that builds the Parent for this Scene
+	 * @param width       Double - sets the stage width for this getScene.
+	 * @param height      Double - sets the stage height for this getScene
+	 */
+	public static void addScene(Integer sceneID, Supplier<Parent> rootFactory, Double width, Double height) {defaultContext.addScene(sceneID, rootFactory, width, height);}
+
+	public static void addScene(Integer sceneID, Integer stageID, Supplier<Parent> rootFactory, Double width, Double height, StageStyle initStyle, Modality initModality) {defaultContext.addScene(sceneID, stageID, rootFactory, width, height, initStyle, initModality);}
+
+	public static void addScene(Integer sceneID, Integer stageID, Supplier<Parent> rootFactory, Double width, Double height) {defaultContext.addScene(sceneID, stageID, rootFactory, width, height);}
+
+	/**
+	 * Use preload to build scenes that were added with a root factory before they
+	 * are shown. The root factories are called on a small pool of background threads,
+	 * then each finished root is handed back to the JavaFX Application Thread in a
+	 * single Platform.runLater, where its Scene is created. Building a scene graph off
+	 * the FX thread is fine as long as it is not yet attached to a showing Stage.<BR><BR>
+	 * Each sceneID gets its own CompletableFuture which completes on the JavaFX
+	 * Application Thread once the Scene is ready. Scenes that are already built complete
+	 * right away, and a sceneID that does not exist completes with null.
+	 *
+	 * <pre>
+	 * Switcher.preload(C.SCENE_TWO, C.SCENE_THREE).get(C.SCENE_TWO).thenRun(() -&gt; btnNext.setDisable(false));
+	 * </pre>
+	 *
+	 * @param sceneIDs one or more sceneIDs to build in the background
+	 * @return a Map of each sceneID to a CompletableFuture of its Scene
+	 */
+	public static Map<Integer, CompletableFuture<Scene>> preload(Integer... sceneIDs) {return defaultContext.preload(sceneIDs);}
+
+	/**
+	 * Sets how many background threads preload may use at the same time to build
+	 * scenes. This must be called before the first call to preload. The default is
+	 * one less than the number of processors, but never more than four.
+	 *
+	 * @param threads the maximum number of scenes that will be built at once
+	 */
+	public static void setPreloadThreads(int threads) {SwitcherContext.setPreloadThreads(threads);}
 
 	/**
 	 * Use addStage to give Switcher a stage that you configured.
@@ -223,23 +229,14 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param stageID a unique Integer
 	 * @param stage   a Stage that you configured
 	 */
-	public static void addStage(Integer stageID, Stage stage) {
-		checkForIDConflict(stageID);
-		if (!stageMap.containsKey(stageID)) {
-			stageMap.put(stageID, stage);
-		}
-		else {System.err.println("addStage - stageID " + stageID + " ALREADY EXIST USE removeStage first");}
-	}
+	public static void addStage(Integer stageID, Stage stage) {defaultContext.addStage(stageID, stage);}
 
 	/**
 	 * Use removeScene to take a sceneID out of Switcher if needed.
 	 *
 	 * @param sceneID a unique Integer
 	 */
-	public static void removeScene(Integer sceneID) {
-		if (sceneObjectMap.containsKey(sceneID)) {sceneObjectMap.remove(sceneID);}
-		else {warnNoScene("removeScene", sceneID);}
-	}
+	public static void removeScene(Integer sceneID) {defaultContext.removeScene(sceneID);}
 
 	/**
 	 * Use removeStage to remove a stage from Switcher.
@@ -250,20 +247,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @param stageID a unique Integer
 	 */
-	public static void removeStage(Integer stageID) {
-		if (stageMap.containsKey(stageID)) {
-			stageMap.remove(stageID);
-			for (Integer sid : sceneObjectMap.keySet()) {
-				SceneObject so = sceneObjectMap.get(sid);
-				if (so.getStageID()
-					  .equals(stageID)) {
-					so.setStageID(null);
-					sceneObjectMap.replace(sid, so);
-				}
-			}
-		}
-		else {warnNoStage("removeStage", stageID);}
-	}
+	public static void removeStage(Integer stageID) {defaultContext.removeStage(stageID);}
 
 	/**
 	 * If you have already added a scene to Switcher and later want to assign it
@@ -274,13 +258,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneID Integer containing the Scenes ID
 	 * @param stageID Integer containing the Stages ID
 	 */
-	public static void assignSceneToStage(Integer sceneID, Integer stageID) {
-		if (sceneObjectMap.containsKey(sceneID)) {
-			sceneObjectMap.get(sceneID)
-						  .setStageID(stageID);
-		}
-		else {warnNoScene("assignSceneToStage", sceneID);}
-	}
+	public static void assignSceneToStage(Integer sceneID, Integer stageID) {defaultContext.assignSceneToStage(sceneID, stageID);}
 
 	/**
 	 * When a Scene is not assigned to a Stage, Switcher will show it
@@ -293,26 +271,22 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param initStyle    your StageStyle
 	 * @param initModality your Modality
 	 */
-	public static void configureDefaultStage(final StageStyle initStyle, final Modality initModality) {
-		Platform.runLater(() -> {
-			if (!stageMap.containsKey(defaultStageID)) stageMap.put(defaultStageID, new Stage());
-			if (initStyle != null) {
-				stageMap.get(defaultStageID)
-						.initStyle(initStyle);
-			}
-			if (initModality != null) {
-				stageMap.get(defaultStageID)
-						.initModality(initModality);
-			}
-		});
-	}
+	public static void configureDefaultStage(final StageStyle initStyle, final Modality initModality) {defaultContext.configureDefaultStage(initStyle, initModality);}
 
 	/**
 	 * Short version of showScene
 	 *
 	 * @param sceneID Integer of your unique sceneID
 	 */
-	public static void show(Integer sceneID) {showScene(sceneID);}
+	public static void show(Integer sceneID) {defaultContext.show(sceneID);}
+
+	/**
+	 * Short version of showScene that takes a primitive sceneID
+	 * so nothing gets boxed along the way.
+	 *
+	 * @param sceneID int of your unique sceneID
+	 */
+	public static void show(int sceneID) {defaultContext.show(sceneID);}
 
 	/**
 	 * Short version of showScene
@@ -320,7 +294,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneID       Integer of your unique sceneID
 	 * @param showMaximized - set true to show maximized
 	 */
-	public static void show(Integer sceneID, boolean showMaximized) {showScene(sceneID, showMaximized);}
+	public static void show(Integer sceneID, boolean showMaximized) {defaultContext.show(sceneID, showMaximized);}
 
 	/**
 	 * Short version of showScene
@@ -335,7 +309,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param stageX  Double
 	 * @param stageY  Double
 	 */
-	public static void show(Integer sceneID, Double width, Double height, Double stageX, Double stageY) {showScene(sceneID, width, height, stageX, stageY);}
+	public static void show(Integer sceneID, Double width, Double height, Double stageX, Double stageY) {defaultContext.show(sceneID, width, height, stageX, stageY);}
 
 	/**
 	 * show a Scene by providing its sceneID and optional width and height
@@ -346,7 +320,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param width   Double
 	 * @param height  Double
 	 */
-	public static void show(Integer sceneID, Double width, Double height) {showScene(sceneID, width, height);}
+	public static void show(Integer sceneID, Double width, Double height) {defaultContext.show(sceneID, width, height);}
 
 	/**
 	 * showScene is used to display any of the scenes that
@@ -361,7 +335,15 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @param sceneID a unique Integer - each getScene needs a unique sceneID
 	 */
-	public static void showScene(Integer sceneID) {showSceneFinal(sceneID, null, null, null, null, NEW_SCENE, false);}
+	public static void showScene(Integer sceneID) {defaultContext.showScene(sceneID);}
+
+	/**
+	 * Same as showScene, but takes a primitive sceneID so nothing
+	 * gets boxed along the way.
+	 *
+	 * @param sceneID a unique int - each getScene needs a unique sceneID
+	 */
+	public static void showScene(int sceneID) {defaultContext.showScene(sceneID);}
 
 	/**
 	 * Same as showScene with option to show maximized
@@ -369,7 +351,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneID       a unique Integer - each getScene needs a unique sceneID
 	 * @param showMaximized - set true to show maximized
 	 */
-	public static void showScene(Integer sceneID, boolean showMaximized) {showSceneFinal(sceneID, null, null, null, null, NEW_SCENE, showMaximized);}
+	public static void showScene(Integer sceneID, boolean showMaximized) {defaultContext.showScene(sceneID, showMaximized);}
 
 	/**
 	 * showScene by providing its sceneID and optional X and Y coordinates
@@ -383,9 +365,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param stageX  Double
 	 * @param stageY  Double
 	 */
-	public static void showScene(Integer sceneID, Double width, Double height, Double stageX, Double stageY) {
-		showSceneFinal(sceneID, width, height, stageX, stageY, NEW_SCENE, false);
-	}
+	public static void showScene(Integer sceneID, Double width, Double height, Double stageX, Double stageY) {defaultContext.showScene(sceneID, width, height, stageX, stageY);}
 
 	/**
 	 * showScene by providing its sceneID and optional width and height
@@ -396,23 +376,21 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param width   Double
 	 * @param height  Double
 	 */
-	public static void showScene(Integer sceneID, Double width, Double height) {
-		showSceneFinal(sceneID, width, height, null, null, NEW_SCENE, false);
-	}
+	public static void showScene(Integer sceneID, Double width, Double height) {defaultContext.showScene(sceneID, width, height);}
 
 	/**
 	 * use this method to show a scene in maximized form
 	 *
 	 * @param sceneID Integer of your unique sceneID
 	 */
-	public static void showMaximized(Integer sceneID) {showScene(sceneID, true);}
+	public static void showMaximized(Integer sceneID) {defaultContext.showMaximized(sceneID);}
 
 	/**
 	 * use this method to show a scene in maximized form
 	 *
 	 * @param sceneID Integer of your unique sceneID
 	 */
-	public static void showSceneMaximized(Integer sceneID) {showScene(sceneID, true);}
+	public static void showSceneMaximized(Integer sceneID) {defaultContext.showSceneMaximized(sceneID);}
 
 	/**
 	 * @param sceneID Integer
@@ -420,9 +398,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param stageY  Double
 	 * @deprecated Use showSceneAt
 	 */
-	public static void showSceneWithPosition(Integer sceneID, Double stageX, Double stageY) {
-		showSceneAt(sceneID, stageX, stageY);
-	}
+	public static void showSceneWithPosition(Integer sceneID, Double stageX, Double stageY) {defaultContext.showSceneWithPosition(sceneID, stageX, stageY);}
 
 	/**
 	 * showSceneAt coordinates by providing its sceneID and optional X and Y coordinates
@@ -433,14 +409,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param stageX  Double
 	 * @param stageY  Double
 	 */
-	public static void showSceneAt(Integer sceneID, Double stageX, Double stageY) {
-		Platform.runLater(() -> {
-			if (stageX < 0 || stageY < 0) {System.err.println("Values for X and Y in showScene must not be negative");}
-			else {
-				showSceneFinal(sceneID, null, null, stageX, stageY, NEW_SCENE, false);
-			}
-		});
-	}
+	public static void showSceneAt(Integer sceneID, Double stageX, Double stageY) {defaultContext.showSceneAt(sceneID, stageX, stageY);}
 
 	/**
 	 * showSceneSplitX by providing its sceneID and X and Y coordinates
@@ -452,19 +421,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param stageX  Double
 	 * @param stageY  Double
 	 */
-	public static void showSceneSplitX(Integer sceneID, Double stageX, Double stageY) {
-		Platform.runLater(() -> {
-			if (stageX < 0 || stageY < 0) {System.err.println("Values for X and Y in showScene must not be negative");}
-			else {
-				if (sceneObjectMap.containsKey(sceneID)) {
-					SceneObject so        = sceneObjectMap.get(sceneID);
-					Double      newStageX = stageX - (so.getWidth() / 2);
-					showSceneFinal(sceneID, null, null, newStageX, stageY, NEW_SCENE, false);
-				}
-				else {warnNoScene("showScene", sceneID);}
-			}
-		});
-	}
+	public static void showSceneSplitX(Integer sceneID, Double stageX, Double stageY) {defaultContext.showSceneSplitX(sceneID, stageX, stageY);}
 
 	/**
 	 * showSceneSplitY by providing its sceneID and X and Y coordinates
@@ -476,19 +433,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param stageX  Double
 	 * @param stageY  Double
 	 */
-	public static void showSceneSplitY(Integer sceneID, Double stageX, Double stageY) {
-		Platform.runLater(() -> {
-			if (stageX < 0 || stageY < 0) {System.err.println("Values for X and Y in showScene must not be negative");}
-			else {
-				if (sceneObjectMap.containsKey(sceneID)) {
-					SceneObject so        = sceneObjectMap.get(sceneID);
-					Double      newStageY = stageY - (so.getHeight() / 2);
-					showSceneFinal(sceneID, null, null, stageX, newStageY, NEW_SCENE, false);
-				}
-				else {warnNoScene("showScene", sceneID);}
-			}
-		});
-	}
+	public static void showSceneSplitY(Integer sceneID, Double stageX, Double stageY) {defaultContext.showSceneSplitY(sceneID, stageX, stageY);}
 
 	/**
 	 * showSceneSplitXY by providing its sceneID and X and Y coordinates
@@ -500,20 +445,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param stageX  Double
 	 * @param stageY  Double
 	 */
-	public static void showSceneSplitXY(Integer sceneID, Double stageX, Double stageY) {
-		Platform.runLater(() -> {
-			if (stageX < 0 || stageY < 0) {System.err.println("Values for X and Y in showScene must not be negative");}
-			else {
-				if (sceneObjectMap.containsKey(sceneID)) {
-					SceneObject so        = sceneObjectMap.get(sceneID);
-					Double      newStageX = stageX - (so.getWidth() / 2);
-					Double      newStageY = stageY - (so.getHeight() / 2);
-					showSceneFinal(sceneID, null, null, newStageX, newStageY, NEW_SCENE, false);
-				}
-				else {warnNoScene("showScene", sceneID);}
-			}
-		});
-	}
+	public static void showSceneSplitXY(Integer sceneID, Double stageX, Double stageY) {defaultContext.showSceneSplitXY(sceneID, stageX, stageY);}
 
 	/**
 	 * @param sceneID Integer
@@ -521,23 +453,51 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param height  Double
 	 * @deprecated use showScene(sceneID, width, height)
 	 */
-	public static void showSceneWithSize(Integer sceneID, Double width, Double height) {
-		showScene(sceneID, width, height);
-	}
+	public static void showSceneWithSize(Integer sceneID, Double width, Double height) {defaultContext.showSceneWithSize(sceneID, width, height);}
 
-	private static void showSceneFinal(Integer sceneID, Double width, Double height, Double stageX, Double stageY, boolean showingNewScene, boolean showMaximized) {
-		if (sceneObjectMap.containsKey(sceneID)) {
-			SceneObject sceneObject = sceneObjectMap.get(sceneID);
-			Platform.runLater(() -> {
-				if (width != null) sceneObject.setStageWidth(width);
-				if (height != null) sceneObject.setStageHeight(height);
-				if (stageX != null) sceneObject.setStageX(stageX);
-				if (stageY != null) sceneObject.setStageY(stageY);
-				showSceneObject(sceneID, showingNewScene, showMaximized);
-			});
-		}
-		else {warnNoScene("showScene", sceneID);}
-	}
+	/**
+	 * showSceneAsync works just like showScene, but gives you back a CompletableFuture
+	 * that completes with the Stage once it is actually on the screen, meaning when
+	 * the Stage fires its WINDOW_SHOWN event. If the Stage was already showing and
+	 * only the Scene changed, the future completes as soon as the Scene is in place.
+	 * The future always completes on the JavaFX Application Thread.<BR><BR>
+	 * This lets you chain work behind a visible transition without polling isShowing:
+	 * <pre>
+	 * Switcher.showSceneAsync(C.SPLASH).thenRun(() -&gt; Switcher.preload(C.MAIN));
+	 * </pre>
+	 *
+	 * @param sceneID Integer of your unique sceneID
+	 * @return CompletableFuture of the Stage the Scene was shown on
+	 */
+	public static CompletableFuture<Stage> showSceneAsync(Integer sceneID) {return defaultContext.showSceneAsync(sceneID);}
+
+	/**
+	 * hideSceneAsync works just like hide, but gives you back a CompletableFuture that
+	 * completes with the Stage once it fires its WINDOW_HIDDEN event. If the Stage
+	 * was not showing to begin with, the future completes right away.
+	 *
+	 * @param sceneID Integer of your unique sceneID
+	 * @return CompletableFuture of the Stage that was hidden
+	 */
+	public static CompletableFuture<Stage> hideSceneAsync(Integer sceneID) {return defaultContext.hideSceneAsync(sceneID);}
+
+	/**
+	 * batch lets you show and hide several scenes, usually on different Stages, as one change.
+	 * Everything you add to the batch is applied in a single trip to the JavaFX Application
+	 * Thread: first the hides, then every Stage gets its Scene, size and position, and only
+	 * then are the Stages shown, one right after the other, so a layout made of several windows
+	 * appears all at once instead of one window at a time.<BR><BR>
+	 * <pre>
+	 * Switcher.batch(b -&gt; b.show(C.PANEL).show(C.MONITOR).hide(C.SPLASH));
+	 * </pre>
+	 * The whole batch counts as one step in the history, which remembers the last Scene the
+	 * batch showed, and the history properties change once at the end. If a batch asks for
+	 * more than one Scene on the same Stage, only the last of them is shown and the others
+	 * count as dropped shows, see getDroppedShows.
+	 *
+	 * @param builder adds the shows and hides to the batch
+	 */
+	public static void batch(Consumer<SwitcherBatch> builder) {defaultContext.batch(builder);}
 
 	/**
 	 * setTitle Set the title for this scene and it will get applied to the stage when shown.
@@ -545,11 +505,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneID Integer
 	 * @param title   String
 	 */
-	public static void setTitle(Integer sceneID, String title) {
-		if (sceneObjectMap.containsKey(sceneID)) {
-			sceneObjectMap.get(sceneID).setTitle(title);
-		}
-	}
+	public static void setTitle(Integer sceneID, String title) {defaultContext.setTitle(sceneID, title);}
 
 	/**
 	 * use getStage to gain access to any of the stages that you have
@@ -563,12 +519,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @return Stage of given stageID or the default stage if stageID is null
 	 * Switcher will return null if the stageID does not exist.
 	 */
-	public static Stage getStage(Integer stageID) {
-		if (stageID == null) return getDefaultStage();
-		if (stageMap.containsKey(stageID)) return stageMap.get(stageID);
-		warnNoStage("getStage", stageID);
-		return null;
-	}
+	public static Stage getStage(Integer stageID) {return defaultContext.getStage(stageID);}
 
 	/**
 	 * use getStageForScene to pull the stage for any of your scenes
@@ -580,28 +531,21 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneID the unique ID of your scene
 	 * @return Stage assigned to that Scene
 	 */
-	public static Stage getStageForScene(Integer sceneID) {
-		Stage requestedStage = null;
-		for (Integer sID : sceneObjectMap.keySet()) {
-			Integer sceneStageID = sceneObjectMap.get(sID)
-												 .getStageID();
-			if (sID.equals(sceneID)) requestedStage = stageMap.get(sceneStageID);
-		}
-		return requestedStage;
-	}
+	public static Stage getStageForScene(Integer sceneID) {return defaultContext.getStageForScene(sceneID);}
 
 	/**
 	 * use setDefaultStage to get access to the default stage
 	 * This would mainly be used so that you can set the
 	 * setOnCloseRequest option of the stage to have it
 	 * call whatever method you want when the stage is asked to close.
+	 * A Stage can only be made on the JavaFX Application Thread, so if you call this
+	 * from another thread before Switcher has a default Stage, you get null, and the
+	 * Stage is made on the JavaFX Application Thread right after. The same goes for
+	 * getStage(null) and getStageForScene with a scene on the default Stage.
 	 *
-	 * @return default Stage or null if you have not added any scenes.
+	 * @return default Stage, or null when called from another thread before there is one
 	 */
-	public static Stage getDefaultStage() {
-		if (!stageMap.containsKey(defaultStageID)) stageMap.put(defaultStageID, new Stage());
-		return stageMap.get(defaultStageID);
-	}
+	public static Stage getDefaultStage() {return defaultContext.getDefaultStage();}
 
 	/**
 	 * use setDefaultStage to assign your own stage to Switcher, for
@@ -615,28 +559,30 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @param stage is the stage you are assigning as default.
 	 */
-	public static void setDefaultStage(Stage stage) {
-		if (stageMap.containsKey(defaultStageID)) {System.err.println("Switcher already has a default Stage, this must be the first command executed in your code.");}
-		else {stageMap.put(defaultStageID, stage);}
-	}
+	public static void setDefaultStage(Stage stage) {defaultContext.setDefaultStage(stage);}
 
 	/**
 	 * Use getScene to gain access to the Scene that Switcher creates
-	 * so that you can make changes to it as needed
+	 * so that you can make changes to it as needed.
+	 * A scene added with a root factory is only built on the JavaFX Application Thread,
+	 * so if you call this from another thread before it has been built, or after its
+	 * root was let go to stay within the memory budget, you get null without a warning.
+	 * Call it on the JavaFX Application Thread, or preload the scene first, to always
+	 * get the Scene.
 	 *
 	 * @param sceneID the sceneID of the scene you want
-	 * @return Will return null if the sceneID does not exist
-	 */
-	public static Scene getScene(Integer sceneID) {
-		if (sceneObjectMap.containsKey(sceneID)) {
-			return sceneObjectMap.get(sceneID)
-								 .getScene();
-		}
-		else {
-			warnNoScene("getScene", sceneID);
-			return null;
-		}
-	}
+	 * @return the Scene, or null when the sceneID does not exist or, from another thread, when the scene is not built
+	 */
+	public static Scene getScene(Integer sceneID) {return defaultContext.getScene(sceneID);}
+
+	/**
+	 * Same as getScene, but takes a primitive sceneID so nothing
+	 * gets boxed along the way.
+	 *
+	 * @param sceneID the sceneID of the scene you want
+	 * @return the Scene, or null when the sceneID does not exist or, from another thread, when the scene is not built
+	 */
+	public static Scene getScene(int sceneID) {return defaultContext.getScene(sceneID);}
 
 	/**
 	 * setHideOnLostFocus lets you configure Switcher so that when the user
@@ -647,12 +593,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @param hideOnLostFocus true / false
 	 */
-	public static void setHideOnLostFocus(boolean hideOnLostFocus) {
-		allHiddenOnLostFocus = hideOnLostFocus;
-		for (Integer index : sceneObjectMap.keySet()) {
-			sceneObjectMap.get(index).setHiddenOnLostFocus(hideOnLostFocus);
-		}
-	}
+	public static void setHideOnLostFocus(boolean hideOnLostFocus) {defaultContext.setHideOnLostFocus(hideOnLostFocus);}
 
 	/**
 	 * setHideOnLostFocus lets you configure Switcher so that when the user
@@ -664,12 +605,26 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneID         unique sceneID Integer
 	 * @param hideOnLostFocus true / false
 	 */
-	public static void setHideOnLostFocus(Integer sceneID, boolean hideOnLostFocus) {
-		if (sceneObjectMap.containsKey(sceneID)) {
-			sceneObjectMap.get(sceneID).setHiddenOnLostFocus(hideOnLostFocus);
-		}
-		else {warnNoScene("setHideOnLostFocus", sceneID);}
-	}
+	public static void setHideOnLostFocus(Integer sceneID, boolean hideOnLostFocus) {defaultContext.setHideOnLostFocus(sceneID, hideOnLostFocus);}
+
+	/**
+	 * setCenterOn picks the screen that Switcher centers a Stage on when the Scene
+	 * being shown has no X and Y of its own. This applies to every Scene that has not
+	 * been given its own setting. On a machine with more than one monitor, OWNER_SCREEN
+	 * or MOUSE_SCREEN keeps new windows where the user is looking.
+	 *
+	 * @param centerOn PRIMARY_SCREEN, OWNER_SCREEN or MOUSE_SCREEN
+	 */
+	public static void setCenterOn(CenterOn centerOn) {defaultContext.setCenterOn(centerOn);}
+
+	/**
+	 * Same as setCenterOn, but only for one Scene. Pass null to go
+	 * back to using the setting for all scenes.
+	 *
+	 * @param sceneID  unique sceneID Integer
+	 * @param centerOn PRIMARY_SCREEN, OWNER_SCREEN, MOUSE_SCREEN or null
+	 */
+	public static void setCenterOn(Integer sceneID, CenterOn centerOn) {defaultContext.setCenterOn(sceneID, centerOn);}
 
 	/**
 	 * Call sceneHiddenOnLostFocus to find out if Switcher is configured to
@@ -678,13 +633,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneID unique sceneID Integer
 	 * @return true/false or null if sceneID does not exist
 	 */
-	public static Boolean sceneHiddenOnLostFocus(Integer sceneID) {
-		if (sceneObjectMap.containsKey(sceneID)) {
-			return sceneObjectMap.get(sceneID).hideOnLostFocus();
-		}
-		else {warnNoScene("sceneHiddenOnLostFocus", sceneID);}
-		return null;
-	}
+	public static Boolean sceneHiddenOnLostFocus(Integer sceneID) {return defaultContext.sceneHiddenOnLostFocus(sceneID);}
 
 	/**
 	 * Call allHiddenObLostFocus to find out if Switcher
@@ -692,7 +641,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @return true/false or null if sceneID does not exist
 	 */
-	public static Boolean allHiddenOnLostFocus() {return allHiddenOnLostFocus;}
+	public static Boolean allHiddenOnLostFocus() {return defaultContext.allHiddenOnLostFocus();}
 
 	/**
 	 * Call getWindow(sceneID) to quickly get the Window of the current
@@ -701,10 +650,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneID unique sceneID Integer
 	 * @return Window of the current Scene
 	 */
-	public static Window getWindow(Integer sceneID) {
-		return Objects.requireNonNull(getScene(sceneID))
-					  .getWindow();
-	}
+	public static Window getWindow(Integer sceneID) {return defaultContext.getWindow(sceneID);}
 
 	/**
 	 * use this method to hide a Scene when you have more than
@@ -712,9 +658,15 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @param sceneID Integer of your unique sceneID
 	 */
-	public static void hide(Integer sceneID) {
-		hideScene(sceneID);
-	}
+	public static void hide(Integer sceneID) {defaultContext.hide(sceneID);}
+
+	/**
+	 * Same as hide, but takes a primitive sceneID so nothing
+	 * gets boxed along the way.
+	 *
+	 * @param sceneID int of your unique sceneID
+	 */
+	public static void hide(int sceneID) {defaultContext.hide(sceneID);}
 
 	/**
 	 * use this method to show a hidden Scene when you have
@@ -722,37 +674,28 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @param sceneID Integer of your unique sceneID
 	 */
-	public static void unHide(Integer sceneID) {
-		show(sceneID);
-	}
+	public static void unHide(Integer sceneID) {defaultContext.unHide(sceneID);}
 
 	/**
 	 * @return true if Scene is currently being shown on screen
 	 * @deprecated Use visible(stageID)
 	 */
-	public static boolean visible() {
-		boolean response = false;
-		for (Integer sceneID : sceneObjectMap.keySet()) {
-			if (sceneObjectMap.get(sceneID).showing()) {
-				response = true;
-				break;
-			}
-		}
-		return response;
-	}
+	public static boolean visible() {return defaultContext.visible();}
 
 	/**
 	 * Use visible(stageID) to find out if Switcher is currently showing any scene at all
 	 *
 	 * @return true if Scene is currently being shown on screen
 	 */
-	public static boolean visible(Integer sceneID) {
-		boolean response = false;
-		if (sceneObjectMap.containsKey(sceneID)) {
-			response = sceneObjectMap.get(sceneID).showing();
-		}
-		return response;
-	}
+	public static boolean visible(Integer sceneID) {return defaultContext.visible(sceneID);}
+
+	/**
+	 * Same as visible(sceneID), but takes a primitive sceneID so nothing
+	 * gets boxed along the way.
+	 *
+	 * @return true if Scene is currently being shown on screen
+	 */
+	public static boolean visible(int sceneID) {return defaultContext.visible(sceneID);}
 
 	/**
 	 * use isShowing to find out if a particular scene is the one current being displayed on
@@ -762,14 +705,16 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneID unique ID Integer
 	 * @return true if showing, false if not
 	 */
-	public static boolean isShowing(Integer sceneID) {
-		boolean response = false;
-		if (sceneObjectMap.containsKey(sceneID)) {
-			SceneObject scene = sceneObjectMap.get(sceneID);
-			response = scene.showing();
-		}
-		return response;
-	}
+	public static boolean isShowing(Integer sceneID) {return defaultContext.isShowing(sceneID);}
+
+	/**
+	 * Same as isShowing, but takes a primitive sceneID so nothing
+	 * gets boxed along the way.
+	 *
+	 * @param sceneID unique ID int
+	 * @return true if showing, false if not
+	 */
+	public static boolean isShowing(int sceneID) {return defaultContext.isShowing(sceneID);}
 
 	/**
 	 * Use getVisibleWithHistoryProperty to bind to a control that invokes the showLastScene method.
@@ -778,7 +723,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @return BooleanProperty
 	 */
-	public static BooleanProperty getVisibleWithHistoryProperty() {return visibleWithHistoryProperty;}
+	public static BooleanProperty getVisibleWithHistoryProperty() {return defaultContext.getVisibleWithHistoryProperty();}
 
 	/**
 	 * Use getEnabledWithHistoryProperty to bind to a control that invokes the showLastScene method.
@@ -787,7 +732,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @return BooleanProperty
 	 */
-	public static BooleanProperty getEnabledWithHistoryProperty() {return enabledWithHistoryProperty;}
+	public static BooleanProperty getEnabledWithHistoryProperty() {return defaultContext.getEnabledWithHistoryProperty();}
 
 	/**
 	 * As your code invokes showScene to show the different Scenes that you have added into Switcher,
@@ -796,12 +741,39 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * method until the first getScene displayed is reached. This is similar behavior to a Back button
 	 * on a web browser.
 	 */
-	public static void showLastScene() {
-		if (history.hasHistory()) {
-			Integer lastSceneID = history.getLastSceneID();
-			showSceneFinal(lastSceneID, null, null, null, null, PRIOR_SCENE, false);
-		}
-	}
+	public static void showLastScene() {defaultContext.showLastScene();}
+
+	/**
+	 * After going back with showLastScene, showNextScene goes forward again, just like
+	 * the Forward button on a web browser. Showing a new Scene with showScene clears
+	 * anything that was ahead of it.
+	 */
+	public static void showNextScene() {defaultContext.showNextScene();}
+
+	/**
+	 * Use nextSceneAvailable to find out if there is a Scene that you could
+	 * display by invoking showNextScene.
+	 *
+	 * @return true if there is a scene to go forward to.
+	 */
+	public static boolean nextSceneAvailable() {return defaultContext.nextSceneAvailable();}
+
+	/**
+	 * Switcher remembers a fixed number of scenes in each direction so that a program
+	 * that runs for weeks does not keep growing its history. When the history is full,
+	 * the oldest scenes are forgotten first. The default depth is 100.
+	 *
+	 * @param depth how many scenes to remember for showLastScene and showNextScene
+	 */
+	public static void setHistoryDepth(int depth) {defaultContext.setHistoryDepth(depth);}
+
+	/**
+	 * When set to true, showing the same Scene that is already showing will not add
+	 * another entry to the history, so showLastScene never goes "back" to the same Scene.
+	 *
+	 * @param deduplicate true / false
+	 */
+	public static void setHistoryDeduplication(boolean deduplicate) {defaultContext.setHistoryDeduplication(deduplicate);}
 
 	/**
 	 * Use lastSceneAvailable to find out if there was a Scene showing that you
@@ -812,18 +784,14 @@ import java.util.concurrent.ThreadLocalRandom;
 	 *
 	 * @return true if there is a previous scene to go back to.
 	 */
-	public static boolean lastSceneAvailable() {
-		return history.hasHistory();
-	}
+	public static boolean lastSceneAvailable() {return defaultContext.lastSceneAvailable();}
 
 	/**
 	 * @param sceneId ID of a Scene managed by Switcher
 	 * @param handler {@code EventHandler} to be invoked when Scene is shown
 	 * @deprecated Use runOnShown
 	 */
-	public static void setOnShown(Integer sceneId, EventHandler<Event> handler) {
-		runOnShown(sceneId, handler);
-	}
+	public static void setOnShown(Integer sceneId, EventHandler<Event> handler) {defaultContext.runOnShown(sceneId, handler);}
 
 	/**
 	 * Registers an {@code EventHandler} on a Scene managed by Switcher.
@@ -832,11 +800,7 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneId ID of a Scene managed by Switcher
 	 * @param handler {@code EventHandler} to be invoked when Scene is shown
 	 */
-	public static void runOnShown(Integer sceneId, EventHandler<Event> handler) {
-		if (sceneObjectMap.containsKey(sceneId)) {
-			sceneObjectMap.get(sceneId).setShowEvent(handler);
-		}
-	}
+	public static void runOnShown(Integer sceneId, EventHandler<Event> handler) {defaultContext.runOnShown(sceneId, handler);}
 
 	/**
 	 * Registers an {@code EventHandler} on a Scene managed by Switcher.
@@ -845,272 +809,174 @@ import java.util.concurrent.ThreadLocalRandom;
 	 * @param sceneId ID of a Scene managed by Switcher
 	 * @param handler {@code EventHandler} to be invoked when Scene is shown
 	 */
-	public static void runOnHidden(Integer sceneId, EventHandler<Event> handler) {
-		if (sceneObjectMap.containsKey(sceneId)) {
-			sceneObjectMap.get(sceneId).setHideEvent(handler);
-		}
-	}
-
-	private static void showSceneObject(Integer sceneID, boolean showingNewScene, boolean showMaximized) {
-		SceneObject sceneObject = sceneObjectMap.get(sceneID);
-		if (showingNewScene) {
-			history.showingNewScene(sceneID);
-		}
-		visibleWithHistoryProperty.setValue(history.hasHistory());
-		enabledWithHistoryProperty.setValue(!history.hasHistory());
-		sceneObject.showScene(showMaximized);
-	}
-
-	private static void hideScene(Integer sceneID) {
-		if (sceneObjectMap.containsKey(sceneID)) {
-			getSceneObject(sceneID).hideScene();
-		}
-		else {warnNoScene("hide(sceneID)", sceneID);}
-	}
-
-	private static SceneObject getSceneObject(Integer sceneID)              {return sceneObjectMap.getOrDefault(sceneID, null);}
-
-	private static void warnNoScene(String callingMethod, Integer sceneID)  {System.err.println("sceneID " + sceneID + " does not exist being called from method " + callingMethod);}
-
-	private static void warnNoStage(String callingMethod, Integer stageID)  {System.err.println("stageID " + stageID + " does not exist being called from method " + callingMethod);}
-
-	private static void customWarning(String callingMethod, String message) {System.err.println(callingMethod + ":" + message);}
-
-	private static Integer getRandom() {
-		int min = 1000000;
-		int max = 9999999;
-		Integer finalInt = ThreadLocalRandom.current()
-											.nextInt(min, max + 1);
-		while (randomInts.contains(finalInt) || stageMap.containsKey(finalInt)) {
-			finalInt = ThreadLocalRandom.current()
-										.nextInt(min, max + 1);
-		}
-		randomInts.add(finalInt);
-		return finalInt;
-	}
+	public static void runOnHidden(Integer sceneId, EventHandler<Event> handler) {defaultContext.runOnHidden(sceneId, handler);}
 
-	private static void setPrimaryStage(Stage primaryStage) {
-		if (Switcher.firstRun) {
-			stageMap.put(defaultStageID, primaryStage);
-			Switcher.firstRun = false;
-		}
-	}
-
-	private static void addSceneObject(Integer sceneID, Integer stageID, Parent parent, Double width, Double height, Scene scene) {
-		if (Switcher.firstRun) {
-			if (!stageMap.containsKey(defaultStageID)) stageMap.put(defaultStageID, new Stage());
-			Switcher.firstRun = false;
-		}
-		if (parent == null) {sceneObjectMap.put(sceneID, new SceneObject(stageID, scene, width, height, allHiddenOnLostFocus));}
-		else {sceneObjectMap.put(sceneID, new SceneObject(stageID, parent, width, height, allHiddenOnLostFocus));}
-		sceneObjectMap.get(sceneID)
-					  .setHiddenOnLostFocus(allHiddenOnLostFocus);
-	}
-
-	private static void checkForIDConflict(Integer stageID) {
-		if (randomInts.contains(stageID) || stageID.equals(defaultStageID)) {
-			Integer oldDefaultStageID = defaultStageID;
-			defaultStageID = getRandom();
-			stageMap.put(defaultStageID, stageMap.get(oldDefaultStageID));
-			stageMap.remove(oldDefaultStageID);
-		}
-	}
-
-	private static Integer getSceneIDFromStageID(Integer stageID) {
-		Integer response = -1;
-		for (Integer sceneID : sceneObjectMap.keySet()) {
-			SceneObject scene = sceneObjectMap.get(sceneID);
-			if (scene.getStageID().equals(stageID)) {
-				response = sceneID;
-				break;
-			}
-		}
-		return response;
-	}
-}
-
-
-/**
- * SceneObject is a Class that contains all
- * of the relevant information about a
- * getScene so that the showScene methods
- * can properly configure the stage and
- * the getScene for display. This class is
- * private to Switcher.
- */
-class SceneObject extends Switcher {
-
-	private final Scene                   scene;
-	private       String                  title             = "";
-	private       Integer                 stageID;
-	private       Double                  width;
-	private       Double                  height;
-	private       Double                  stageX            = -1.0;
-	private       Double                  stageY            = -1.0;
-	private       boolean                 customXY          = false;
-	private       boolean                 hideOnLostFocus;
-	private       boolean                 hidden            = false;
-	private       EventHandler<Event>     showEvent;
-	private       EventHandler<Event>     hideEvent;
-	private final ChangeListener<Boolean> lostFocusListener = (observable, oldValue, newValue) -> {
-		if (!newValue) {
-			hideScene();
-		}
-	};
-
-	SceneObject(Integer stageID, Parent parent, Double width, Double height, boolean hideOnLostFocus) {
-		this.stageID         = stageID;
-		this.width           = (width == null) ? getStage().getWidth() : width;
-		this.height          = (height == null) ? getStage().getHeight() : height;
-		this.scene           = new Scene(parent);
-		this.hideOnLostFocus = hideOnLostFocus;
-	}
-
-	SceneObject(Integer stageID, Scene scene, Double width, Double height, boolean hideOnLostFocus) {
-		this.stageID         = stageID;
-		this.width           = (width == null) ? getStage().getWidth() : width;
-		this.height          = (height == null) ? getStage().getHeight() : height;
-		this.scene           = scene;
-		this.hideOnLostFocus = hideOnLostFocus;
-	}
-
-	private Stage getStage() {return Objects.requireNonNull(Switcher.getStage((this.stageID)));}
-
-	private void setStageTitle() {
-		if (!title.equals("")) getStage().setTitle(title);
-	}
-
-	public void setTitle(String title)                      {this.title = title;}
+	/**
+	 * setRootSwapping turns on a mode where each Stage keeps one Scene for as long as it
+	 * lives, and switching to another scene on that Stage only swaps the root Parent of
+	 * that Scene, instead of calling setScene with a different Scene every time. This is
+	 * much cheaper for fast, tab like navigation inside one window.<BR><BR>
+	 * Because the Scene is shared, anything you set on a Scene itself, such as stylesheets
+	 * or accelerators, should go on the Stage's Scene or on your root Parent instead.
+	 * Scenes that you gave Switcher as a finished Scene with addScene(sceneID, scene, stage)
+	 * are always shown with setScene.
+	 *
+	 * @param rootSwapping true to swap roots, false to give each scene its own Scene (the default)
+	 */
+	public static void setRootSwapping(boolean rootSwapping) {defaultContext.setRootSwapping(rootSwapping);}
 
-	public void setShowEvent(EventHandler<Event> showEvent) {this.showEvent = showEvent;}
+	/**
+	 * @return true if Switcher swaps roots inside one Scene per Stage
+	 */
+	public static boolean isRootSwapping() {return defaultContext.isRootSwapping();}
 
-	public void setHideEvent(EventHandler<Event> hideEvent) {this.hideEvent = hideEvent;}
+	/**
+	 * setCoalesceShows makes Switcher wait until the current burst of events is over
+	 * before it shows anything, and then only show the last Scene that was asked for
+	 * on each Stage. When the user hammers a navigation button, or several parts of your
+	 * program call showScene within the same pulse, the Stage goes straight to where it
+	 * ends up instead of flickering through, and laying out, every Scene in between.<BR><BR>
+	 * A show that gets replaced this way is dropped. If it came from showSceneAsync, its
+	 * future is cancelled. Hiding a Scene that is still waiting to be shown drops that show
+	 * as well. Because the show happens a moment later, isShowing will not be true for the
+	 * Scene right after the call to showScene returns.
+	 *
+	 * @param coalesceShows true to apply only the last show per Stage, false to apply every show (the default)
+	 */
+	public static void setCoalesceShows(boolean coalesceShows) {defaultContext.setCoalesceShows(coalesceShows);}
 
-	public boolean hideOnLostFocus() {
-		return hideOnLostFocus;
-	}
+	/**
+	 * @return true if Switcher coalesces rapid shows on a Stage down to the last one
+	 */
+	public static boolean isCoalescingShows() {return defaultContext.isCoalescingShows();}
 
-	public void setHiddenOnLostFocus(boolean hideOnLostFocus) {
-		this.hideOnLostFocus = hideOnLostFocus;
-		if (Switcher.getStage(this.stageID) != null) {
-			if (hideOnLostFocus) {
-				Objects.requireNonNull(getStage()).focusedProperty().addListener(lostFocusListener);
-			}
-			else {
-				Objects.requireNonNull(getStage()).focusedProperty().removeListener(lostFocusListener);
-			}
-		}
-	}
+	/**
+	 * When shows are coalesced, the Scenes that got dropped along the way still go into the
+	 * history by default, so showLastScene walks back through them just as if each one had been
+	 * shown. Set this to false to only keep the Scenes that actually made it onto the screen.
+	 *
+	 * @param inHistory true to remember dropped Scenes in the history (the default), false to skip them
+	 */
+	public static void setCoalescedShowsInHistory(boolean inHistory) {defaultContext.setCoalescedShowsInHistory(inHistory);}
 
-	public Scene getScene()                 {return scene;}
+	/**
+	 * getDroppedShows tells you how many shows were never applied because a later
+	 * show on the same Stage, or a hide of the same Scene, replaced them while shows
+	 * were being coalesced.
+	 *
+	 * @return the number of shows dropped since the program started
+	 */
+	public static long getDroppedShows() {return defaultContext.getDroppedShows();}
 
-	public Integer getStageID()             {return this.stageID;}
+	/**
+	 * setMetricsEnabled makes Switcher time every show and hide, for each scene and for
+	 * each part of the show: waiting for the JavaFX Application Thread, building the root,
+	 * CSS, layout and the native show. Read the times with metrics(). While it is on, CSS
+	 * and layout are done right before the Stage is shown instead of in the next pulse,
+	 * so that they can be timed. The work is the same, it just happens a moment sooner.
+	 *
+	 * @param metricsEnabled true to record times, false to stop (the default)
+	 */
+	public static void setMetricsEnabled(boolean metricsEnabled) {defaultContext.setMetricsEnabled(metricsEnabled);}
 
-	public void setStageID(Integer stageID) {this.stageID = stageID;}
+	/**
+	 * @return true if Switcher is recording show and hide times
+	 */
+	public static boolean isMetricsEnabled() {return defaultContext.isMetricsEnabled();}
 
-	public Double getWidth()                {return width;} // Returns width of stage
+	/**
+	 * metrics gives you the show and hide times recorded since setMetricsEnabled(true),
+	 * as a histogram per scene and phase. When someone says a screen is slow, something like
+	 * <pre>
+	 * System.out.println(Switcher.metrics().report());
+	 * </pre>
+	 * shows which scene it is and where the time goes. It can be read from any thread.
+	 *
+	 * @return the metrics, which keep filling up as long as metrics are enabled
+	 */
+	public static SwitcherMetrics metrics() {return defaultContext.metrics();}
 
-	public Double getHeight()               {return height;} // Returns height of stage
+	/**
+	 * setSceneMemoryBudget puts a limit on how many scenes that were added with a root
+	 * factory may stay built at the same time. When there are more than that, Switcher
+	 * lets go of the roots of the ones that were shown least recently and are not on the
+	 * screen right now. They are built again from their factory the next time they are shown.
+	 * Scenes that were added as a finished Parent or Scene cannot be rebuilt, so they are
+	 * never released and do not count toward the budget.
+	 *
+	 * @param maxBuiltScenes the most factory built scenes to keep, or 0 for no limit (the default)
+	 */
+	public static void setSceneMemoryBudget(int maxBuiltScenes) {defaultContext.setSceneMemoryBudget(maxBuiltScenes);}
 
-	public void setStageX(Double stageX) {
-		this.stageX = stageX;
-		customXY    = true;
-	}
+	/**
+	 * Same idea as setSceneMemoryBudget, but the limit is the total number of Nodes in the
+	 * scene graphs of the factory built scenes, counted when each one is built. This is a
+	 * better fit when some screens are far heavier than others. Both limits can be used
+	 * together.
+	 *
+	 * @param maxBuiltNodes the most Nodes to keep across factory built scenes, or 0 for no limit (the default)
+	 */
+	public static void setSceneNodeBudget(int maxBuiltNodes) {defaultContext.setSceneNodeBudget(maxBuiltNodes);}
 
-	public void setStageY(Double stageY) {
-		this.stageY = stageY;
-		customXY    = true;
-	}
+	/**
+	 * setReleaseOnMemoryPressure has Switcher listen to the JVM's own memory usage
+	 * notifications. When the old generation of the heap is still more than the given
+	 * fraction full after a garbage collection, Switcher releases the least recently
+	 * shown half of the factory built scenes that are not on the screen, the same way
+	 * setSceneMemoryBudget does. They are built again the next time they are shown.
+	 * This lets the scenes you keep around grow and shrink with the memory that is
+	 * actually available.
+	 *
+	 * @param usageFraction a value between 0 and 1, such as 0.8 for 80 percent, or 0 to stop listening
+	 */
+	public static void setReleaseOnMemoryPressure(double usageFraction) {SwitcherContext.setReleaseOnMemoryPressure(usageFraction);}
 
-	public void setStageWidth(Double width) {
-		this.width = width;
-	}
+	/**
+	 * Every Stage that Switcher creates for a stageID in addScene comes out of a pool, and
+	 * goes back into it when you call removeStage, provided it is hidden by then. Stages
+	 * are pooled by StageStyle and Modality, since neither can be changed once a Stage has
+	 * been shown. Before a Stage goes back into the pool, its Scene, title, icons, window
+	 * state and its setOnShowing, setOnShown, setOnHiding, setOnHidden and setOnCloseRequest
+	 * handlers are cleared. Nothing else can be cleared, so a Stage you have had from getStage,
+	 * getStageForScene, getWindow or a showSceneAsync or hideSceneAsync future, where you could
+	 * have added event handlers, filters, listeners, properties or user data, is never pooled
+	 * again. Neither are Stages you give Switcher with addStage.<BR><BR>
+	 * setStagePoolSize sets how many idle Stages are kept for each style and modality.
+	 * The default is 8. Set it to 0 to turn pooling off.
+	 *
+	 * @param idlePerStyle the most idle Stages to keep for each StageStyle and Modality
+	 */
+	public static void setStagePoolSize(int idlePerStyle) {defaultContext.setStagePoolSize(idlePerStyle);}
 
-	public void setStageHeight(Double height) {
-		this.height = height;
-	}
+	/**
+	 * fillStagePool creates Stages ahead of time, for example while your program starts up,
+	 * so that the first alerts or popups you show do not have to wait for them. It never
+	 * fills past the size set with setStagePoolSize. Pass null for a style or modality to use
+	 * the JavaFX default.
+	 *
+	 * @param initStyle    the StageStyle of the Stages to create
+	 * @param initModality the Modality of the Stages to create
+	 * @param count        how many idle Stages of this kind to have in the pool
+	 */
+	public static void fillStagePool(StageStyle initStyle, Modality initModality, int count) {defaultContext.fillStagePool(initStyle, initModality, count);}
 
-	public void hideScene() {
-		Platform.runLater(() -> getStage().hide());
-		this.hidden = true;
-		if (hideEvent != null) {
-			hideEvent.handle(new ActionEvent());
-		}
-	}
+	/**
+	 * @return how many times Switcher needed a new Stage and found one in the pool
+	 */
+	public static long getStagePoolHits() {return defaultContext.getStagePoolHits();}
 
-	public void showScene(boolean showMaximized) {
-		setStageTitle();
-		if (!hidden) {
-			getStage().setWidth(width);
-			getStage().setHeight(height);
-			getStage().setMaximized(showMaximized);
-			if (!showMaximized) {
-				if (!customXY) {
-					Rectangle2D bounds = Screen.getPrimary().getVisualBounds();
-					stageX = (bounds.getWidth() / 2) - (this.width / 2);
-					stageY = (bounds.getHeight() / 2) - (this.height / 2);
-				}
-				getStage().setWidth(width);
-				getStage().setHeight(height);
-				getStage().setX(stageX);
-				getStage().setY(stageY);
-			}
-			getStage().setScene(scene);
-		}
-		Platform.runLater(() -> {
-			getStage().show();
-			getStage().toFront();
-			getStage().requestFocus();
-		});
-		this.hidden = false;
-		if (showEvent != null) {
-			showEvent.handle(new ActionEvent());
-		}
-	}
+	/**
+	 * @return how many times Switcher needed a new Stage and had to create it
+	 */
+	public static long getStagePoolMisses() {return defaultContext.getStagePoolMisses();}
 
-	public boolean showing() {return !hidden;}
+	/**
+	 * getSkippedStageWrites tells you how many times Switcher did not have to touch a
+	 * Stage property (width, height, X, Y, maximized or Scene) while showing a Scene,
+	 * because the Stage already had that value. Re-showing a Scene that is already set
+	 * up should skip nearly everything.
+	 *
+	 * @return the number of Stage writes skipped since the program started
+	 */
+	public static long getSkippedStageWrites() {return defaultContext.getSkippedStageWrites();}
 }
-
-/**
- * This class simply maintains the history of
- * scenes as they are shown so that Switcher can
- * easily go back to the previously shown
- * getScene when showLastScene is invoked.
- * This class is private to Switcher.
- */
-class HistoryKeeper {
-
-	private final Map<Integer, Integer> pastSceneIDs = new HashMap<>();
-	private       Integer               lastSceneID  = null;
-	private       int                   index;
-
-	public HistoryKeeper() {
-		index = 0;
-	}
-
-	private void addLastSceneID() {
-		if (lastSceneID != null) {
-			pastSceneIDs.put(index, this.lastSceneID);
-		}
-	}
-
-	public Integer getLastSceneID() {
-		if (index > 0) {
-			index--;
-			lastSceneID = pastSceneIDs.get(index);
-			pastSceneIDs.remove(index);
-		}
-		return lastSceneID;
-	}
-
-	public void showingNewScene(Integer newSceneID) {
-		addLastSceneID();
-		this.lastSceneID = newSceneID;
-		index++;
-	}
-
-	public boolean hasHistory() {
-		return pastSceneIDs.size() > 0;
-	}
-
-}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.simtechdata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SwitcherBatch collects the shows and hides that you pass to Switcher.batch
+ * so that they can all be applied together. You never create one yourself,
+ * Switcher hands it to you:
+ * <pre>
+ * Switcher.batch(b -&gt; b.show(C.PANEL).show(C.MONITOR, 400, 300).hide(C.SPLASH));
+ * </pre>
+ * When the same sceneID shows up more than once, the last thing you asked
+ * for it is what happens.
+ */
+public final class SwitcherBatch {
+
+	final List<Step> steps = new ArrayList<>();
+
+	SwitcherBatch() {}
+
+	/**
+	 * Show a Scene with the size and position it already has.
+	 *
+	 * @param sceneID the unique ID of your scene
+	 * @return this batch
+	 */
+	public SwitcherBatch show(int sceneID) {
+		return add(new Step(sceneID, true, false, null, null, null, null));
+	}
+
+	/**
+	 * Show a Scene maximized.
+	 *
+	 * @param sceneID the unique ID of your scene
+	 * @return this batch
+	 */
+	public SwitcherBatch showMaximized(int sceneID) {
+		return add(new Step(sceneID, true, true, null, null, null, null));
+	}
+
+	/**
+	 * Show a Scene with a new width and height, which persist just like they do with showScene.
+	 *
+	 * @param sceneID the unique ID of your scene
+	 * @param width   width of the Stage
+	 * @param height  height of the Stage
+	 * @return this batch
+	 */
+	public SwitcherBatch show(int sceneID, double width, double height) {
+		return add(new Step(sceneID, true, false, width, height, null, null));
+	}
+
+	/**
+	 * Show a Scene with a new size and position, which persist just like they do with showScene.
+	 *
+	 * @param sceneID the unique ID of your scene
+	 * @param width   width of the Stage
+	 * @param height  height of the Stage
+	 * @param stageX  X position of the Stage
+	 * @param stageY  Y position of the Stage
+	 * @return this batch
+	 */
+	public SwitcherBatch show(int sceneID, double width, double height, double stageX, double stageY) {
+		return add(new Step(sceneID, true, false, width, height, stageX, stageY));
+	}
+
+	/**
+	 * Hide a Scene.
+	 *
+	 * @param sceneID the unique ID of your scene
+	 * @return this batch
+	 */
+	public SwitcherBatch hide(int sceneID) {
+		return add(new Step(sceneID, false, false, null, null, null, null));
+	}
+
+	private SwitcherBatch add(Step step) {
+		steps.removeIf(existing -> existing.sceneID == step.sceneID);
+		steps.add(step);
+		return this;
+	}
+
+	static final class Step {
+
+		final int     sceneID;
+		final boolean show;
+		final boolean showMaximized;
+		final Double  width;
+		final Double  height;
+		final Double  stageX;
+		final Double  stageY;
+
+		Step(int sceneID, boolean show, boolean showMaximized, Double width, Double height, Double stageX, Double stageY) {
+			this.sceneID       = sceneID;
+			this.show          = show;
+			this.showMaximized = showMaximized;
+			this.width         = width;
+			this.height        = height;
+			this.stageX        = stageX;
+			this.stageY        = stageY;
+		}
+	}
+}
@@ -0,0 +1,1900 @@
+package com.simtechdata;
+
+import com.simtechdata.Switcher.CenterOn;
+import com.simtechdata.SwitcherMetrics.Phase;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.event.ActionEvent;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * SwitcherContext is one complete Switcher, with its own scenes, stages, default
+ * Stage, history and settings. The static methods in Switcher all work on a single
+ * default SwitcherContext, which is all most programs need. Create more of them when
+ * one JVM needs navigators that know nothing about each other, such as one for each
+ * workspace of a multi window program, or tests that run side by side.<BR><BR>
+ * Each public method does exactly what the static method of the same name in Switcher
+ * does, for this context only, and is documented there.
+ * <pre>
+ * SwitcherContext workspace = new SwitcherContext();
+ * workspace.addScene(C.EDITOR, editorRoot, 800.0, 600.0);
+ * workspace.showScene(C.EDITOR);
+ * </pre>
+ * All contexts share the JavaFX Application Thread, so the calls they get from other
+ * threads go through one queue and are applied in the order they were made. The preload
+ * threads and the memory pressure listener are shared by all contexts as well.
+ */
+@SuppressWarnings({"unused", "SameParameterValue"}) public class SwitcherContext {
+
+	private static final    boolean                NEW_SCENE                  = true;
+	private static final    boolean                PRIOR_SCENE                = false;
+	private static final    Queue<QueuedCommand>   commandQueue               = new ConcurrentLinkedQueue<>();
+	private static final    AtomicBoolean          drainScheduled             = new AtomicBoolean(false);
+	private static final    Set<SwitcherContext>   contexts                   = Collections.newSetFromMap(new WeakHashMap<>());
+	private static final    AtomicBoolean          memoryReleasePending       = new AtomicBoolean(false);
+	private static          ExecutorService        preloadExecutor;
+	private static          int                    preloadThreads             = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+	private final           BooleanProperty        visibleWithHistoryProperty = new SimpleBooleanProperty();
+	private final           BooleanProperty        enabledWithHistoryProperty = new SimpleBooleanProperty();
+	private final           IntMap<SceneObject>    sceneObjectMap             = new IntMap<>();
+	private final           IntMap<Stage>          stageMap                   = new IntMap<>();
+	private final           IntMap<IntSet>         stageScenes                = new IntMap<>();
+	private final           IntSet                 defaultStageScenes         = new IntSet();
+	private final           IntSet                 showingScenes              = new IntSet();
+	private final           IdAllocator            internalIDs                = new IdAllocator();
+	private final           HistoryKeeper          history                    = new HistoryKeeper();
+	private                 boolean                firstRun                   = true;
+	private volatile        boolean                allHiddenOnLostFocus       = false;
+	private volatile        CenterOn               centerOn                   = CenterOn.PRIMARY_SCREEN;
+	private volatile        long                   skippedStageWrites         = 0;
+	private volatile        boolean                rootSwapping               = false;
+	private volatile        boolean                coalesceShows              = false;
+	private volatile        boolean                coalescedShowsInHistory    = true;
+	private volatile        long                   droppedShows               = 0;
+	private final           SwitcherMetrics        metrics                    = new SwitcherMetrics();
+	private volatile        boolean                metricsEnabled             = false;
+	private                 List<Stage>            pendingShowStages          = new ArrayList<>();
+	private                 boolean                pendingShowsScheduled      = false;
+	private final           Map<Stage, StageState> stageStates                = new HashMap<>();
+	private final           SceneLru               builtScenes                = new SceneLru();
+	private final           StagePool              stagePool                  = new StagePool();
+	private final           Set<Stage>             pooledStages               = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private                 int                    maxBuiltScenes             = 0;
+	private                 int                    maxBuiltNodes              = 0;
+	private final           Object                 registryLock               = new Object();
+	private volatile        RegistrySnapshot       snapshot                   = RegistrySnapshot.EMPTY;
+	private                 boolean                snapshotStale              = false;
+	private                 Integer                defaultStageID             = newInternalID();
+	private                 Integer                lastSceneIDShowing;
+
+	/**
+	 * Creates an empty context with its own default Stage, which is made the
+	 * first time a scene is added, unless you hand it one with init.
+	 */
+	public SwitcherContext() {
+		synchronized (contexts) {contexts.add(this);}
+	}
+
+	public void init(Stage primaryStage) {
+		setPrimaryStage(primaryStage);
+	}
+
+	public void init(Stage primaryStage, StageStyle initStyle, Modality initModality) {
+		runOnFxThread(() -> {
+			if (initStyle != null) primaryStage.initStyle(initStyle);
+			if (initModality != null) primaryStage.initModality(initModality);
+			setPrimaryStage(primaryStage);
+		});
+	}
+
+	public void setPrimary(Stage primaryStage) {
+		setPrimaryStage(primaryStage);
+	}
+
+	public void setPrimary(Stage primaryStage, StageStyle initStyle, Modality initModality) {
+		runOnFxThread(() -> {
+			if (initStyle != null) primaryStage.initStyle(initStyle);
+			if (initModality != null) primaryStage.initModality(initModality);
+			setPrimaryStage(primaryStage);
+		});
+	}
+
+	public void addScene(Integer sceneID, Parent root, Double width, Double height) {
+		runOnFxThread(() -> addSceneObject(sceneID, null, root, width, height, null));
+	}
+
+	public void addScene(Integer sceneID, Parent root, Double width, Double height, StageStyle initStyle, Modality initModality) {
+		runOnFxThread(() -> {
+			addSceneObject(sceneID, null, root, width, height, null);
+			stageMap.get(defaultStageID)
+					.initStyle(initStyle);
+			stageMap.get(defaultStageID)
+					.initModality(initModality);
+		});
+	}
+
+	public void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height, StageStyle initStyle, Modality initModality) {
+		runOnFxThread(() -> {
+			if (!stageMap.containsKey(stageID)) {
+				Stage stage = borrowStage(initStyle, initModality);
+				putStage(stageID, stage);
+			}
+			checkForIDConflict(stageID);
+			addSceneObject(sceneID, stageID, root, width, height, null);
+		});
+	}
+
+	public void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height, StageStyle initStyle) {
+		runOnFxThread(() -> {
+			checkForIDConflict(stageID);
+			if (!stageMap.containsKey(stageID)) {
+				Stage stage = borrowStage(initStyle, null);
+				putStage(stageID, stage);
+			}
+			addSceneObject(sceneID, stageID, root, width, height, null);
+		});
+	}
+
+	public void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height, Modality initModality) {
+		runOnFxThread(() -> {
+			checkForIDConflict(stageID);
+			if (!stageMap.containsKey(stageID)) {
+				Stage stage = borrowStage(null, initModality);
+				putStage(stageID, stage);
+			}
+			addSceneObject(sceneID, stageID, root, width, height, null);
+		});
+	}
+
+	public void addScene(Integer sceneID, Integer stageID, Parent root, Double width, Double height) {
+		runOnFxThread(() -> {
+			checkForIDConflict(stageID);
+			if (!stageMap.containsKey(stageID)) {
+				Stage stage = borrowStage(null, null);
+				putStage(stageID, stage);
+			}
+			addSceneObject(sceneID, stageID, root, width, height, null);
+		});
+	}
+
+	public void addScene(Integer sceneID, Scene scene, Stage stage) {
+		runOnFxThread(() -> {
+			Integer newStageID = newInternalID();
+			putStage(newStageID, stage);
+			addSceneObject(sceneID, newStageID, null, null, null, scene);
+		});
+	}
+
+	public void addScene(Integer sceneID, Supplier<Parent> rootFactory, Double width, Double height) {
+		runOnFxThread(() -> addSceneObject(sceneID, null, rootFactory, width, height));
+	}
+
+	public void addScene(Integer sceneID, Integer stageID, Supplier<Parent> rootFactory, Double width, Double height, StageStyle initStyle, Modality initModality) {
+		runOnFxThread(() -> {
+			checkForIDConflict(stageID);
+			if (!stageMap.containsKey(stageID)) {
+				Stage stage = borrowStage(initStyle, initModality);
+				putStage(stageID, stage);
+			}
+			addSceneObject(sceneID, stageID, rootFactory, width, height);
+		});
+	}
+
+	public void addScene(Integer sceneID, Integer stageID, Supplier<Parent> rootFactory, Double width, Double height) {
+		runOnFxThread(() -> {
+			checkForIDConflict(stageID);
+			if (!stageMap.containsKey(stageID)) {
+				Stage stage = borrowStage(null, null);
+				putStage(stageID, stage);
+			}
+			addSceneObject(sceneID, stageID, rootFactory, width, height);
+		});
+	}
+
+	public Map<Integer, CompletableFuture<Scene>> preload(Integer... sceneIDs) {
+		Map<Integer, CompletableFuture<Scene>> futureMap = new LinkedHashMap<>();
+		for (Integer sceneID : sceneIDs) {
+			futureMap.put(sceneID, new CompletableFuture<>());
+		}
+		runOnFxThread(() -> futureMap.forEach((sceneID, future) -> {
+			SceneObject sceneObject = getSceneObject(sceneID);
+			if (sceneObject != null) {
+				sceneObject.preload(getPreloadExecutor())
+						   .whenComplete((scene, throwable) -> {
+							   if (throwable != null) {future.completeExceptionally(throwable);}
+							   else {future.complete(scene);}
+						   });
+			}
+			else {
+				warnNoScene("preload", sceneID);
+				future.complete(null);
+			}
+		}));
+		return futureMap;
+	}
+
+	static void setPreloadThreads(int threads) {
+		if (threads < 1) {customWarning("setPreloadThreads", "threads must be at least 1");}
+		else if (preloadExecutor != null) {customWarning("setPreloadThreads", "must be called before the first call to preload");}
+		else {preloadThreads = threads;}
+	}
+
+	public void addStage(Integer stageID, Stage stage) {
+		runOnFxThread(() -> {
+			checkForIDConflict(stageID);
+			if (!stageMap.containsKey(stageID)) {
+				putStage(stageID, stage);
+			}
+			else {System.err.println("addStage - stageID " + stageID + " ALREADY EXIST USE removeStage first");}
+		});
+	}
+
+	public void removeScene(Integer sceneID) {
+		runOnFxThread(() -> {
+			SceneObject sceneObject = getSceneObject(sceneID);
+			if (sceneObject != null) {
+				unindexScene(sceneID, sceneObject);
+				forgetShowing(sceneID);
+				builtScenes.remove(sceneObject);
+				forgetShownScene(sceneObject);
+				synchronized (registryLock) {sceneObjectMap.remove(sceneID);}
+				metrics.forget(sceneID);
+				sceneObject.dispose();
+			}
+			else {warnNoScene("removeScene", sceneID);}
+		});
+	}
+
+	public void removeStage(Integer stageID) {
+		runOnFxThread(() -> {
+			if (stageID != null && stageMap.containsKey(stageID)) {
+				Stage      stage      = takeStage(stageID);
+				StageState stageState = stageStates.remove(stage);
+				if (stageState != null && stageState.focusListener != null) {
+					stage.focusedProperty().removeListener(stageState.focusListener);
+					stage.removeEventFilter(MouseEvent.ANY, ScreenCache.POINTER_TRACKER);
+				}
+				if (stageState != null) dropPendingShow(stageState);
+				if (pooledStages.remove(stage)) stagePool.giveBack(stage);
+				IntSet sceneIDs = stageScenes.remove(stageID);
+				if (sceneIDs != null) {
+					synchronized (registryLock) {
+						sceneIDs.forEach(sid -> sceneObjectMap.get(sid).setStageID(null));
+					}
+					sceneIDs.forEach(defaultStageScenes::add);
+				}
+				internalIDs.release(stageID);
+			}
+			else {warnNoStage("removeStage", stageID);}
+		});
+	}
+
+	public void assignSceneToStage(Integer sceneID, Integer stageID) {
+		runOnFxThread(() -> {
+			SceneObject sceneObject = getSceneObject(sceneID);
+			if (sceneObject != null) {
+				unindexScene(sceneID, sceneObject);
+				forgetShownScene(sceneObject);
+				synchronized (registryLock) {sceneObject.setStageID(stageID);}
+				indexScene(sceneID, sceneObject);
+			}
+			else {warnNoScene("assignSceneToStage", sceneID);}
+		});
+	}
+
+	public void configureDefaultStage(final StageStyle initStyle, final Modality initModality) {
+		runOnFxThread(() -> {
+			defaultStage();
+			if (initStyle != null) {
+				stageMap.get(defaultStageID)
+						.initStyle(initStyle);
+			}
+			if (initModality != null) {
+				stageMap.get(defaultStageID)
+						.initModality(initModality);
+			}
+		});
+	}
+
+	public void show(Integer sceneID) {showScene(sceneID);}
+
+	public void show(int sceneID) {showScene(sceneID);}
+
+	public void show(Integer sceneID, boolean showMaximized) {showScene(sceneID, showMaximized);}
+
+	public void show(Integer sceneID, Double width, Double height, Double stageX, Double stageY) {showScene(sceneID, width, height, stageX, stageY);}
+
+	public void show(Integer sceneID, Double width, Double height) {showScene(sceneID, width, height);}
+
+	public void showScene(Integer sceneID) {showSceneFinal(sceneID, null, null, null, null, NEW_SCENE, false);}
+
+	public void showScene(int sceneID) {requestShow(sceneID, null, null, null, null, NEW_SCENE, false, null);}
+
+	public void showScene(Integer sceneID, boolean showMaximized) {showSceneFinal(sceneID, null, null, null, null, NEW_SCENE, showMaximized);}
+
+	public void showScene(Integer sceneID, Double width, Double height, Double stageX, Double stageY) {
+		showSceneFinal(sceneID, width, height, stageX, stageY, NEW_SCENE, false);
+	}
+
+	public void showScene(Integer sceneID, Double width, Double height) {
+		showSceneFinal(sceneID, width, height, null, null, NEW_SCENE, false);
+	}
+
+	public void showMaximized(Integer sceneID) {showScene(sceneID, true);}
+
+	public void showSceneMaximized(Integer sceneID) {showScene(sceneID, true);}
+
+	public void showSceneWithPosition(Integer sceneID, Double stageX, Double stageY) {
+		showSceneAt(sceneID, stageX, stageY);
+	}
+
+	public void showSceneAt(Integer sceneID, Double stageX, Double stageY) {
+		runOnFxThread(() -> {
+			if (stageX < 0 || stageY < 0) {System.err.println("Values for X and Y in showScene must not be negative");}
+			else {
+				showSceneFinal(sceneID, null, null, stageX, stageY, NEW_SCENE, false);
+			}
+		});
+	}
+
+	public void showSceneSplitX(Integer sceneID, Double stageX, Double stageY) {
+		runOnFxThread(() -> {
+			if (stageX < 0 || stageY < 0) {System.err.println("Values for X and Y in showScene must not be negative");}
+			else {
+				SceneObject so = getSceneObject(sceneID);
+				if (so != null) {
+					Double      newStageX = stageX - (so.getWidth() / 2);
+					showSceneFinal(sceneID, null, null, newStageX, stageY, NEW_SCENE, false);
+				}
+				else {warnNoScene("showScene", sceneID);}
+			}
+		});
+	}
+
+	public void showSceneSplitY(Integer sceneID, Double stageX, Double stageY) {
+		runOnFxThread(() -> {
+			if (stageX < 0 || stageY < 0) {System.err.println("Values for X and Y in showScene must not be negative");}
+			else {
+				SceneObject so = getSceneObject(sceneID);
+				if (so != null) {
+					Double      newStageY = stageY - (so.getHeight() / 2);
+					showSceneFinal(sceneID, null, null, stageX, newStageY, NEW_SCENE, false);
+				}
+				else {warnNoScene("showScene", sceneID);}
+			}
+		});
+	}
+
+	public void showSceneSplitXY(Integer sceneID, Double stageX, Double stageY) {
+		runOnFxThread(() -> {
+			if (stageX < 0 || stageY < 0) {System.err.println("Values for X and Y in showScene must not be negative");}
+			else {
+				SceneObject so = getSceneObject(sceneID);
+				if (so != null) {
+					Double      newStageX = stageX - (so.getWidth() / 2);
+					Double      newStageY = stageY - (so.getHeight() / 2);
+					showSceneFinal(sceneID, null, null, newStageX, newStageY, NEW_SCENE, false);
+				}
+				else {warnNoScene("showScene", sceneID);}
+			}
+		});
+	}
+
+	public void showSceneWithSize(Integer sceneID, Double width, Double height) {
+		showScene(sceneID, width, height);
+	}
+
+	public CompletableFuture<Stage> showSceneAsync(Integer sceneID) {
+		CompletableFuture<Stage> shown = new CompletableFuture<>();
+		showSceneFinal(sceneID, null, null, null, null, NEW_SCENE, false, shown);
+		shown.thenAccept(this::keepOutOfPool);
+		return shown;
+	}
+
+	public CompletableFuture<Stage> hideSceneAsync(Integer sceneID) {
+		CompletableFuture<Stage> hidden = new CompletableFuture<>();
+		if (sceneID == null) {missingScene("hide(sceneID)", null, hidden);}
+		else {hideScene(sceneID.intValue(), hidden);}
+		hidden.thenAccept(this::keepOutOfPool);
+		return hidden;
+	}
+
+	public void batch(Consumer<SwitcherBatch> builder) {
+		SwitcherBatch batch = new SwitcherBatch();
+		builder.accept(batch);
+		if (batch.steps.isEmpty()) return;
+		boolean timed     = metricsEnabled;
+		long    requested = timed ? System.nanoTime() : 0;
+		for (SwitcherBatch.Step step : batch.steps) {
+			if (step.show) SceneEvents.showRequested(this, step.sceneID);
+		}
+		runOnFxThread(() -> applyBatch(batch.steps, timed, requested));
+	}
+
+	private void applyBatch(List<SwitcherBatch.Step> steps, boolean timed, long requested) {
+		List<SceneObject> showScenes = new ArrayList<>();
+		List<Stage>       showStages = new ArrayList<>();
+		List<Boolean>     maximized  = new ArrayList<>();
+		for (SwitcherBatch.Step step : steps) {
+			SceneObject sceneObject = sceneObjectMap.get(step.sceneID);
+			if (sceneObject == null) {
+				warnNoScene(step.show ? "batch show" : "batch hide", step.sceneID);
+				continue;
+			}
+			Stage stage = lookupStage(sceneObject.getStageID());
+			if (stage == null) {
+				warnNoStage("batch", sceneObject.getStageID());
+				continue;
+			}
+			// A show replaces whatever was pending on its Stage, a hide only drops its own scene
+			StageState stageState = stageStates.get(stage);
+			if (stageState != null && stageState.pendingScene != null && (step.show || stageState.pendingScene == sceneObject)) {
+				dropPendingShow(stageState);
+				droppedShows++;
+			}
+			if (!step.show) {
+				sceneObject.hideScene(null);
+				continue;
+			}
+			if (step.width != null) sceneObject.setStageWidth(step.width);
+			if (step.height != null) sceneObject.setStageHeight(step.height);
+			if (step.stageX != null) sceneObject.setStageX(step.stageX);
+			if (step.stageY != null) sceneObject.setStageY(step.stageY);
+			int index = showStages.indexOf(stage);
+			if (index >= 0) {
+				showScenes.remove(index);
+				showStages.remove(index);
+				maximized.remove(index);
+				droppedShows++;
+			}
+			showScenes.add(sceneObject);
+			showStages.add(stage);
+			maximized.add(step.showMaximized);
+		}
+		if (showScenes.isEmpty()) return;
+		// Each SceneShown event covers both halves of its show, like it does in showSceneObject
+		Object[] events = new Object[showScenes.size()];
+		for (int i = 0; i < showScenes.size(); i++) {
+			events[i] = SceneEvents.beginShow();
+			showScenes.get(i).prepareShow(showStages.get(i), maximized.get(i));
+		}
+		for (int i = 0; i < showScenes.size(); i++) {
+			SceneObject sceneObject = showScenes.get(i);
+			sceneObject.presentShow(showStages.get(i));
+			SceneEvents.shown(events[i], sceneObject.getSceneID(), stageIDOf(sceneObject), false);
+		}
+		if (timed) {
+			for (SceneObject sceneObject : showScenes) {
+				metrics.record(sceneObject.getSceneID(), Phase.QUEUED, requested);
+				metrics.record(sceneObject.getSceneID(), Phase.SHOW, requested);
+			}
+		}
+		history.showingNewScene(showScenes.get(showScenes.size() - 1).getSceneID());
+		visibleWithHistoryProperty.setValue(history.hasHistory());
+		enabledWithHistoryProperty.setValue(!history.hasHistory());
+		snapshotStale = true;
+		enforceSceneBudget();
+	}
+
+	private void showSceneFinal(Integer sceneID, Double width, Double height, Double stageX, Double stageY, boolean showingNewScene, boolean showMaximized) {
+		showSceneFinal(sceneID, width, height, stageX, stageY, showingNewScene, showMaximized, null);
+	}
+
+	/**
+	 * Where the Integer overloads end up, so that a null sceneID gets the
+	 * same warning as any other sceneID that does not exist.
+	 */
+	private void showSceneFinal(Integer sceneID, Double width, Double height, Double stageX, Double stageY, boolean showingNewScene, boolean showMaximized, CompletableFuture<Stage> shown) {
+		if (sceneID == null) {missingScene("showScene", null, shown);}
+		else {requestShow(sceneID.intValue(), width, height, stageX, stageY, showingNewScene, showMaximized, shown);}
+	}
+
+	private void requestShow(int sceneID, Double width, Double height, Double stageX, Double stageY, boolean showingNewScene, boolean showMaximized, CompletableFuture<Stage> shown) {
+		boolean timed     = metricsEnabled;
+		long    requested = timed ? System.nanoTime() : 0;
+		SceneEvents.showRequested(this, sceneID);
+		runOnFxThread(() -> {
+			SceneObject sceneObject = sceneObjectMap.get(sceneID);
+			if (sceneObject != null) {
+				if (timed) metrics.record(sceneID, Phase.QUEUED, requested);
+				if (width != null) sceneObject.setStageWidth(width);
+				if (height != null) sceneObject.setStageHeight(height);
+				if (stageX != null) sceneObject.setStageX(stageX);
+				if (stageY != null) sceneObject.setStageY(stageY);
+				if (coalesceShows) {deferShow(sceneID, sceneObject, showingNewScene, showMaximized, shown, timed, requested);}
+				else {
+					showSceneObject(sceneID, sceneObject, showingNewScene, showMaximized, shown);
+					if (timed) metrics.record(sceneID, Phase.SHOW, requested);
+				}
+			}
+			else {missingScene("showScene", sceneID, shown);}
+		});
+	}
+
+	public void setTitle(Integer sceneID, String title) {
+		runOnFxThread(() -> {
+			SceneObject sceneObject = getSceneObject(sceneID);
+			if (sceneObject != null) {
+				sceneObject.setTitle(title);
+			}
+		});
+	}
+
+	public Stage getStage(Integer stageID) {
+		Stage stage = stageOf(stageID);
+		keepOutOfPool(stage);
+		return stage;
+	}
+
+	/**
+	 * getStage for Switcher's own use, which leaves the Stage free to go back into the pool.
+	 */
+	Stage stageOf(Integer stageID) {
+		if (stageID == null) return getDefaultStage();
+		Stage stage;
+		synchronized (registryLock) {stage = stageMap.get(stageID);}
+		if (stage == null) warnNoStage("getStage", stageID);
+		return stage;
+	}
+
+	public Stage getStageForScene(Integer sceneID) {
+		Integer sceneStageID;
+		Stage   stage;
+		synchronized (registryLock) {
+			SceneObject sceneObject = getSceneObject(sceneID);
+			if (sceneObject == null) return null;
+			sceneStageID = sceneObject.getStageID();
+			stage        = (sceneStageID != null) ? stageMap.get(sceneStageID) : null;
+		}
+		if (sceneStageID == null) return getDefaultStage();
+		keepOutOfPool(stage);
+		return stage;
+	}
+
+	/**
+	 * Once a Stage has been handed out, it can carry handlers, listeners, properties
+	 * or user data that StagePool has no way to clear, so it is not pooled again.
+	 * pooledStages can be changed from any thread, so this queues nothing.
+	 */
+	private void keepOutOfPool(Window window) {
+		if (window != null) pooledStages.remove(window);
+	}
+
+	/**
+	 * A Stage can only be made on the JavaFX Application Thread, so when another thread
+	 * asks before there is a default Stage, it gets null and the Stage is made there.
+	 */
+	public Stage getDefaultStage() {
+		if (Platform.isFxApplicationThread()) return defaultStage();
+		synchronized (registryLock) {
+			Stage stage = stageMap.get(defaultStageID);
+			if (stage != null) return stage;
+		}
+		runOnFxThread(this::defaultStage);
+		return null;
+	}
+
+	/**
+	 * The default Stage, made on the spot when there is none yet.
+	 * Only ever called on the JavaFX Application Thread.
+	 */
+	private Stage defaultStage() {
+		Stage stage = stageMap.get(defaultStageID);
+		if (stage == null) {
+			stage = new Stage();
+			putStage(defaultStageID, stage);
+		}
+		return stage;
+	}
+
+	/*
+	 * The getters can be called from any thread, so every change to stageMap, sceneObjectMap
+	 * or the stageID of a scene takes the registryLock, just for the change itself.
+	 */
+
+	private void putStage(int stageID, Stage stage) {
+		synchronized (registryLock) {stageMap.put(stageID, stage);}
+	}
+
+	private Stage takeStage(int stageID) {
+		synchronized (registryLock) {return stageMap.remove(stageID);}
+	}
+
+	public void setDefaultStage(Stage stage) {
+		runOnFxThread(() -> {
+			if (stageMap.containsKey(defaultStageID)) {System.err.println("Switcher already has a default Stage, this must be the first command executed in your code.");}
+			else {putStage(defaultStageID, stage);}
+		});
+	}
+
+	public Scene getScene(Integer sceneID) {
+		if (sceneID == null) {
+			warnNoScene("getScene", null);
+			return null;
+		}
+		return getScene(sceneID.intValue());
+	}
+
+	public Scene getScene(int sceneID) {
+		SceneObject sceneObject;
+		synchronized (registryLock) {sceneObject = sceneObjectMap.get(sceneID);}
+		if (sceneObject != null) {
+			// Building the scene runs the root factory, which must not happen under the lock
+			return Platform.isFxApplicationThread() ? sceneObject.getScene() : sceneObject.currentScene();
+		}
+		else {
+			warnNoScene("getScene", sceneID);
+			return null;
+		}
+	}
+
+	public void setHideOnLostFocus(boolean hideOnLostFocus) {
+		allHiddenOnLostFocus = hideOnLostFocus;
+		runOnFxThread(() -> {
+			for (SceneObject sceneObject : sceneObjectMap) {
+				sceneObject.setHiddenOnLostFocus(hideOnLostFocus);
+			}
+		});
+	}
+
+	public void setHideOnLostFocus(Integer sceneID, boolean hideOnLostFocus) {
+		runOnFxThread(() -> {
+			SceneObject sceneObject = getSceneObject(sceneID);
+			if (sceneObject != null) {
+				sceneObject.setHiddenOnLostFocus(hideOnLostFocus);
+			}
+			else {warnNoScene("setHideOnLostFocus", sceneID);}
+		});
+	}
+
+	public void setCenterOn(CenterOn centerOn) {
+		this.centerOn = (centerOn == null) ? CenterOn.PRIMARY_SCREEN : centerOn;
+	}
+
+	public void setCenterOn(Integer sceneID, CenterOn centerOn) {
+		runOnFxThread(() -> {
+			SceneObject sceneObject = getSceneObject(sceneID);
+			if (sceneObject != null) {
+				sceneObject.setSceneCenterOn(centerOn);
+			}
+			else {warnNoScene("setCenterOn", sceneID);}
+		});
+	}
+
+	public Boolean sceneHiddenOnLostFocus(Integer sceneID) {
+		SceneObject sceneObject;
+		synchronized (registryLock) {sceneObject = getSceneObject(sceneID);}
+		if (sceneObject != null) {
+			return sceneObject.hideOnLostFocus();
+		}
+		else {warnNoScene("sceneHiddenOnLostFocus", sceneID);}
+		return null;
+	}
+
+	public Boolean allHiddenOnLostFocus() {return allHiddenOnLostFocus;}
+
+	public Window getWindow(Integer sceneID) {
+		Window window = Objects.requireNonNull(getScene(sceneID))
+							   .getWindow();
+		keepOutOfPool(window);
+		return window;
+	}
+
+	public void hide(Integer sceneID) {
+		if (sceneID == null) {warnNoScene("hide(sceneID)", null);}
+		else {hideScene(sceneID.intValue());}
+	}
+
+	public void hide(int sceneID) {
+		hideScene(sceneID);
+	}
+
+	public void unHide(Integer sceneID) {
+		show(sceneID);
+	}
+
+	public boolean visible() {
+		if (Platform.isFxApplicationThread()) return !showingScenes.isEmpty();
+		return snapshot.anyShowing();
+	}
+
+	public boolean visible(Integer sceneID) {return sceneID != null && visible(sceneID.intValue());}
+
+	public boolean visible(int sceneID) {
+		if (Platform.isFxApplicationThread()) return showingScenes.contains(sceneID);
+		return snapshot.isShowing(sceneID);
+	}
+
+	public boolean isShowing(Integer sceneID) {return sceneID != null && isShowing(sceneID.intValue());}
+
+	public boolean isShowing(int sceneID) {
+		if (Platform.isFxApplicationThread()) return showingScenes.contains(sceneID);
+		return snapshot.isShowing(sceneID);
+	}
+
+	public BooleanProperty getVisibleWithHistoryProperty() {return visibleWithHistoryProperty;}
+
+	public BooleanProperty getEnabledWithHistoryProperty() {return enabledWithHistoryProperty;}
+
+	public void showLastScene() {
+		runOnFxThread(() -> {
+			if (history.hasHistory()) {
+				int lastSceneID = history.getLastSceneID();
+				SceneEvents.historyMoved(lastSceneID, stageIDOf(lastSceneID), true);
+				requestShow(lastSceneID, null, null, null, null, PRIOR_SCENE, false, null);
+			}
+		});
+	}
+
+	public void showNextScene() {
+		runOnFxThread(() -> {
+			if (history.hasNextScene()) {
+				int nextSceneID = history.getNextSceneID();
+				SceneEvents.historyMoved(nextSceneID, stageIDOf(nextSceneID), false);
+				requestShow(nextSceneID, null, null, null, null, PRIOR_SCENE, false, null);
+			}
+		});
+	}
+
+	public boolean nextSceneAvailable() {
+		if (Platform.isFxApplicationThread()) return history.hasNextScene();
+		return snapshot.hasNextScene();
+	}
+
+	public void setHistoryDepth(int depth) {
+		runOnFxThread(() -> {
+			if (depth < 1) {customWarning("setHistoryDepth", "depth must be at least 1");}
+			else {history.setDepth(depth);}
+		});
+	}
+
+	public void setHistoryDeduplication(boolean deduplicate) {
+		runOnFxThread(() -> history.setDeduplicate(deduplicate));
+	}
+
+	public boolean lastSceneAvailable() {
+		if (Platform.isFxApplicationThread()) return history.hasHistory();
+		return snapshot.hasHistory();
+	}
+
+	public void runOnShown(Integer sceneId, EventHandler<Event> handler) {
+		runOnFxThread(() -> {
+			SceneObject sceneObject = getSceneObject(sceneId);
+			if (sceneObject != null) {
+				sceneObject.setShowEvent(handler);
+			}
+		});
+	}
+
+	public void runOnHidden(Integer sceneId, EventHandler<Event> handler) {
+		runOnFxThread(() -> {
+			SceneObject sceneObject = getSceneObject(sceneId);
+			if (sceneObject != null) {
+				sceneObject.setHideEvent(handler);
+			}
+		});
+	}
+
+	private void showSceneObject(int sceneID, SceneObject sceneObject, boolean showingNewScene, boolean showMaximized, CompletableFuture<Stage> shown) {
+		if (showingNewScene) {
+			history.showingNewScene(sceneID);
+		}
+		visibleWithHistoryProperty.setValue(history.hasHistory());
+		enabledWithHistoryProperty.setValue(!history.hasHistory());
+		snapshotStale = true;
+		Object event = SceneEvents.beginShow();
+		sceneObject.showScene(showMaximized, shown);
+		SceneEvents.shown(event, sceneID, stageIDOf(sceneObject), !showingNewScene);
+		enforceSceneBudget();
+	}
+
+	private void hideScene(int sceneID) {
+		hideScene(sceneID, null);
+	}
+
+	private void hideScene(int sceneID, CompletableFuture<Stage> hidden) {
+		boolean timed     = metricsEnabled;
+		long    requested = timed ? System.nanoTime() : 0;
+		runOnFxThread(() -> {
+			SceneObject sceneObject = sceneObjectMap.get(sceneID);
+			if (sceneObject != null) {
+				StageState stageState = stageStates.get(lookupStage(sceneObject.getStageID()));
+				if (stageState != null && stageState.pendingScene == sceneObject) {
+					dropPendingShow(stageState);
+					droppedShows++;
+				}
+				sceneObject.hideScene(hidden);
+				if (timed) metrics.record(sceneID, Phase.HIDE, requested);
+			}
+			else {missingScene("hide(sceneID)", sceneID, hidden);}
+		});
+	}
+
+	public void setRootSwapping(boolean rootSwapping) {this.rootSwapping = rootSwapping;}
+
+	public boolean isRootSwapping() {return rootSwapping;}
+
+	public void setCoalesceShows(boolean coalesceShows) {this.coalesceShows = coalesceShows;}
+
+	public boolean isCoalescingShows() {return coalesceShows;}
+
+	public void setCoalescedShowsInHistory(boolean inHistory) {this.coalescedShowsInHistory = inHistory;}
+
+	public long getDroppedShows() {return droppedShows;}
+
+	public void setMetricsEnabled(boolean metricsEnabled) {this.metricsEnabled = metricsEnabled;}
+
+	public boolean isMetricsEnabled() {return metricsEnabled;}
+
+	public SwitcherMetrics metrics() {return metrics;}
+
+	/**
+	 * @return the metrics to record into, or null while metrics are off
+	 */
+	SwitcherMetrics activeMetrics() {return metricsEnabled ? metrics : null;}
+
+	private void deferShow(int sceneID, SceneObject sceneObject, boolean showingNewScene, boolean showMaximized, CompletableFuture<Stage> shown, boolean timed, long requested) {
+		Stage stage = lookupStage(sceneObject.getStageID());
+		if (stage == null) {
+			showSceneObject(sceneID, sceneObject, showingNewScene, showMaximized, shown);
+			if (timed) metrics.record(sceneID, Phase.SHOW, requested);
+			return;
+		}
+		StageState stageState = getStageState(stage);
+		if (stageState.pendingScene != null) {
+			dropPendingShow(stageState);
+			droppedShows++;
+		}
+		else {pendingShowStages.add(stage);}
+		boolean recordNow = showingNewScene && coalescedShowsInHistory;
+		if (recordNow) history.showingNewScene(sceneID);
+		stageState.pendingScene     = sceneObject;
+		stageState.pendingMaximized = showMaximized;
+		stageState.pendingNewScene  = showingNewScene && !recordNow;
+		stageState.pendingShown     = shown;
+		stageState.pendingTimed     = timed;
+		stageState.pendingRequested = requested;
+		if (!pendingShowsScheduled) {
+			pendingShowsScheduled = true;
+			Platform.runLater(() -> runOnFxThread(this::applyPendingShows));
+		}
+	}
+
+	/**
+	 * Showing a scene runs its runOnShown handler and completes its showSceneAsync
+	 * future right here, and either one may ask for another coalesced show. So the
+	 * list is swapped for a new one first, and those shows wait for the next pulse.
+	 */
+	private void applyPendingShows() {
+		pendingShowsScheduled = false;
+		List<Stage> stages = pendingShowStages;
+		pendingShowStages = new ArrayList<>();
+		for (Stage stage : stages) {
+			StageState stageState = stageStates.get(stage);
+			if (stageState == null || stageState.pendingScene == null) continue;
+			SceneObject              sceneObject = stageState.pendingScene;
+			CompletableFuture<Stage> shown       = stageState.pendingShown;
+			stageState.clearPendingShow();
+			int sceneID = sceneObject.getSceneID();
+			if (sceneObjectMap.get(sceneID) == sceneObject) {
+				showSceneObject(sceneID, sceneObject, stageState.pendingNewScene, stageState.pendingMaximized, shown);
+				if (stageState.pendingTimed) metrics.record(sceneID, Phase.SHOW, stageState.pendingRequested);
+			}
+			else if (shown != null) {shown.cancel(false);}
+		}
+	}
+
+	private void dropPendingShow(StageState stageState) {
+		if (stageState.pendingShown != null) stageState.pendingShown.cancel(false);
+		stageState.clearPendingShow();
+	}
+
+	public void setSceneMemoryBudget(int maxBuiltScenes) {
+		this.maxBuiltScenes = Math.max(0, maxBuiltScenes);
+		runOnFxThread(this::enforceSceneBudget);
+	}
+
+	public void setSceneNodeBudget(int maxBuiltNodes) {
+		this.maxBuiltNodes = Math.max(0, maxBuiltNodes);
+		runOnFxThread(this::enforceSceneBudget);
+	}
+
+	/**
+	 * SceneObject calls this when it builds its root or is shown, which
+	 * makes it the most recently used scene.
+	 */
+	void sceneUsed(SceneObject sceneObject) {
+		if (sceneObject.isRebuildable() && sceneObject.isBuilt() && sceneObjectMap.get(sceneObject.getSceneID()) == sceneObject) {
+			builtScenes.touch(sceneObject);
+		}
+	}
+
+	private boolean overSceneBudget() {
+		return (maxBuiltScenes > 0 && builtScenes.size() > maxBuiltScenes) || (maxBuiltNodes > 0 && builtScenes.nodeCount() > maxBuiltNodes);
+	}
+
+	void enforceSceneBudget() {
+		releaseLeastRecentWhile(this::overSceneBudget);
+	}
+
+	/**
+	 * Goes through the factory built scenes from the least recently shown to the
+	 * most recently shown, releasing each one that is not on the screen for as
+	 * long as the condition holds.
+	 */
+	private void releaseLeastRecentWhile(BooleanSupplier condition) {
+		SceneObject candidate = builtScenes.leastRecent();
+		while (candidate != null && condition.getAsBoolean()) {
+			SceneObject newer = candidate.lruNewer;
+			if (!candidate.onScreen()) {
+				builtScenes.remove(candidate);
+				SceneEvents.evicted(candidate.getSceneID(), stageIDOf(candidate), candidate.getNodeCount());
+				candidate.release();
+			}
+			candidate = newer;
+		}
+	}
+
+	static void setReleaseOnMemoryPressure(double usageFraction) {
+		if (usageFraction <= 0) {MemoryWatcher.stop();}
+		else if (usageFraction >= 1) {customWarning("setReleaseOnMemoryPressure", "usageFraction must be less than 1");}
+		else {
+			MemoryWatcher.watch(usageFraction, () -> {
+				if (memoryReleasePending.compareAndSet(false, true)) {
+					Platform.runLater(SwitcherContext::releaseAllForMemoryPressure);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Memory pressure belongs to the whole JVM, not to one context,
+	 * so every context lets go of half of its factory built scenes.
+	 */
+	private static void releaseAllForMemoryPressure() {
+		memoryReleasePending.set(false);
+		List<SwitcherContext> all;
+		synchronized (contexts) {all = new ArrayList<>(contexts);}
+		for (SwitcherContext context : all) {
+			context.runOnFxThread(context::releaseForMemoryPressure);
+		}
+	}
+
+	private void releaseForMemoryPressure() {
+		int keep = builtScenes.size() / 2;
+		releaseLeastRecentWhile(() -> builtScenes.size() > keep);
+	}
+
+	/**
+	 * Same as getStage, but without the warning, for internal lookups
+	 * where a missing Stage is not a mistake.
+	 */
+	Stage lookupStage(Integer stageID) {
+		return stageMap.get((stageID == null) ? defaultStageID : stageID);
+	}
+
+	/**
+	 * The stageID a scene is on, with scenes on the default Stage reporting
+	 * the internal ID of the default Stage.
+	 */
+	int stageIDOf(SceneObject sceneObject) {
+		Integer stageID = sceneObject.getStageID();
+		return (stageID == null) ? defaultStageID : stageID;
+	}
+
+	/**
+	 * The stageID of the scene with this sceneID, or -1 when there is no such scene.
+	 * Works on any thread.
+	 */
+	int stageIDOf(int sceneID) {
+		SceneObject sceneObject;
+		synchronized (registryLock) {sceneObject = sceneObjectMap.get(sceneID);}
+		return (sceneObject == null) ? -1 : stageIDOf(sceneObject);
+	}
+
+	/**
+	 * Each Stage gets exactly one focus listener, the first time Switcher shows a scene
+	 * on it, along with the mouse filter that MOUSE_SCREEN centering goes by. When the
+	 * Stage loses focus, the listener only looks at the scene that is showing on it
+	 * right now, so a focus change costs the same no matter how many scenes share
+	 * the Stage.
+	 */
+	void sceneShownOnStage(Stage stage, SceneObject sceneObject) {
+		StageState  stageState = getStageState(stage);
+		SceneObject replaced   = stageState.shownScene;
+		stageState.shownScene = sceneObject;
+		if (replaced != null && replaced != sceneObject) {
+			replaced.replacedOnStage();
+			sceneShowingChanged(replaced);
+		}
+		if (stageState.focusListener == null) {
+			stageState.focusListener = (observable, oldValue, focused) -> {
+				SceneObject shownScene = stageState.shownScene;
+				if (!focused && shownScene != null && shownScene.hideOnLostFocus()) {
+					shownScene.hideScene();
+				}
+			};
+			stage.focusedProperty().addListener(stageState.focusListener);
+			stage.addEventFilter(MouseEvent.ANY, ScreenCache.POINTER_TRACKER);
+		}
+	}
+
+	/**
+	 * Makes sure the Stage a scene was last shown on no longer points at it.
+	 */
+	private void forgetShownScene(SceneObject sceneObject) {
+		Stage      stage      = lookupStage(sceneObject.getStageID());
+		StageState stageState = (stage == null) ? null : stageStates.get(stage);
+		if (stageState != null && stageState.shownScene == sceneObject) stageState.shownScene = null;
+	}
+
+	/**
+	 * A StageState holds its Stage through its focus listener, its host Scene and its
+	 * shown scene, so a weak map would never let go of it. Entries are only made for
+	 * Stages in stageMap, and removeStage takes them out again when the Stage goes.
+	 */
+	StageState getStageState(Stage stage) {
+		return stageStates.computeIfAbsent(stage, key -> new StageState());
+	}
+
+	public void setStagePoolSize(int idlePerStyle) {
+		runOnFxThread(() -> {
+			if (idlePerStyle < 0) {customWarning("setStagePoolSize", "idlePerStyle cannot be negative");}
+			else {stagePool.setMaxIdlePerKey(idlePerStyle);}
+		});
+	}
+
+	public void fillStagePool(StageStyle initStyle, Modality initModality, int count) {
+		runOnFxThread(() -> stagePool.fill(initStyle, initModality, count));
+	}
+
+	public long getStagePoolHits() {return stagePool.hits();}
+
+	public long getStagePoolMisses() {return stagePool.misses();}
+
+	private Stage borrowStage(StageStyle initStyle, Modality initModality) {
+		Stage stage = stagePool.borrow(initStyle, initModality);
+		pooledStages.add(stage);
+		return stage;
+	}
+
+	public long getSkippedStageWrites() {return skippedStageWrites;}
+
+	void stageWriteSkipped() {skippedStageWrites++;}
+
+	/**
+	 * Visual bounds of the screen a Stage should be centered on.
+	 */
+	Rectangle2D centeringBounds(CenterOn sceneCenterOn, Stage stage) {
+		switch ((sceneCenterOn == null) ? centerOn : sceneCenterOn) {
+			case OWNER_SCREEN:
+				return ScreenCache.containing((stage.getOwner() != null) ? stage.getOwner() : stage);
+			case MOUSE_SCREEN:
+				return ScreenCache.underMouse(focusedStage());
+			default:
+				return ScreenCache.primary();
+		}
+	}
+
+	private Stage focusedStage() {
+		for (Stage stage : stageMap) {
+			if (stage.isFocused()) return stage;
+		}
+		return null;
+	}
+
+	/**
+	 * Completes the future with the Stage the next time the Stage fires the given
+	 * WindowEvent, then takes the handler back off the Stage.
+	 */
+	static void completeOnWindowEvent(Stage stage, EventType<WindowEvent> eventType, CompletableFuture<Stage> future) {
+		stage.addEventHandler(eventType, new EventHandler<WindowEvent>() {
+			@Override public void handle(WindowEvent event) {
+				stage.removeEventHandler(eventType, this);
+				future.complete(stage);
+			}
+		});
+	}
+
+	private SceneObject getSceneObject(Integer sceneID)              {return (sceneID == null) ? null : sceneObjectMap.get(sceneID);}
+
+	private static void warnNoScene(String callingMethod, Integer sceneID)  {System.err.println("sceneID " + sceneID + " does not exist being called from method " + callingMethod);}
+
+	private static void warnNoStage(String callingMethod, Integer stageID)  {System.err.println("stageID " + stageID + " does not exist being called from method " + callingMethod);}
+
+	private static void customWarning(String callingMethod, String message) {System.err.println(callingMethod + ":" + message);}
+
+	private static void missingScene(String callingMethod, Integer sceneID, CompletableFuture<Stage> future) {
+		warnNoScene(callingMethod, sceneID);
+		if (future != null) future.completeExceptionally(new IllegalArgumentException("sceneID " + sceneID + " does not exist"));
+	}
+
+	private int newInternalID() {
+		int id = internalIDs.allocate();
+		while (stageMap.containsKey(id)) {
+			id = internalIDs.allocate();
+		}
+		return id;
+	}
+
+	/**
+	 * Everything that changes a context or touches a Stage happens on the JavaFX Application
+	 * Thread, which makes it the only thread that ever writes to the registry. When we are
+	 * already on it, the work is done right away. Calls from any other thread go on a
+	 * queue that all contexts share, which is drained in the order the calls were made,
+	 * and however many pile up before the next pulse, they only cost a single
+	 * Platform.runLater between them.
+	 * <BR><BR>
+	 * Commands do not hold the registryLock while they run, since they call root factories,
+	 * show and hide handlers and even nested event loops, and a getter on another thread
+	 * would be stuck for as long as those take. Only the changes to the maps the getters
+	 * read take the lock. Once a command is done, a fresh RegistrySnapshot is published
+	 * if the command changed anything in it.
+	 */
+	void runOnFxThread(Runnable command) {
+		if (Platform.isFxApplicationThread()) {
+			command.run();
+			publishSnapshot();
+		}
+		else {
+			commandQueue.add(new QueuedCommand(this, command));
+			if (drainScheduled.compareAndSet(false, true)) Platform.runLater(SwitcherContext::drainCommandQueue);
+		}
+	}
+
+	private static void drainCommandQueue() {
+		drainScheduled.set(false);
+		List<SwitcherContext> changed = new ArrayList<>(1);
+		QueuedCommand         queued;
+		while ((queued = commandQueue.poll()) != null) {
+			SwitcherContext context = queued.context;
+			try {
+				queued.command.run();
+			}
+			catch (RuntimeException e) {
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			}
+			if (!changed.contains(context)) changed.add(context);
+		}
+		for (SwitcherContext context : changed) {
+			context.publishSnapshot();
+		}
+	}
+
+	private static final class QueuedCommand {
+
+		private final SwitcherContext context;
+		private final Runnable        command;
+
+		QueuedCommand(SwitcherContext context, Runnable command) {
+			this.context = context;
+			this.command = command;
+		}
+	}
+
+	/**
+	 * visible, isShowing, lastSceneAvailable and nextSceneAvailable answer from the
+	 * live state on the JavaFX Application Thread, and from the last published
+	 * snapshot on every other thread, which costs them a single volatile read.
+	 * The scene and stage counts are cheap to compare, so only changes to what is
+	 * showing need to mark the snapshot as stale. HistoryKeeper keeps track of its
+	 * own changes, so that no way of moving the history can forget to.
+	 */
+	private void publishSnapshot() {
+		RegistrySnapshot current        = snapshot;
+		boolean          historyChanged = history.takeChanged();
+		if (snapshotStale || historyChanged || current.sceneCount() != sceneObjectMap.size() || current.stageCount() != stageMap.size()) {
+			snapshot      = RegistrySnapshot.of(showingScenes, sceneObjectMap.size(), stageMap.size(), history.hasHistory(), history.hasNextScene());
+			snapshotStale = false;
+		}
+	}
+
+	private static synchronized Executor getPreloadExecutor() {
+		if (preloadExecutor == null) {
+			AtomicInteger threadCount = new AtomicInteger();
+			preloadExecutor = Executors.newFixedThreadPool(preloadThreads, runnable -> {
+				Thread thread = new Thread(runnable, "Switcher-Preload-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return preloadExecutor;
+	}
+
+	private void setPrimaryStage(Stage primaryStage) {
+		runOnFxThread(() -> {
+			if (firstRun) {
+				putStage(defaultStageID, primaryStage);
+				firstRun = false;
+			}
+		});
+	}
+
+	private void addSceneObject(Integer sceneID, Integer stageID, Parent parent, Double width, Double height, Scene scene) {
+		if (firstRun) {
+			defaultStage();
+			firstRun = false;
+		}
+		if (parent == null) {putSceneObject(sceneID, new SceneObject(this, sceneID, stageID, scene, width, height, allHiddenOnLostFocus));}
+		else {putSceneObject(sceneID, new SceneObject(this, sceneID, stageID, parent, width, height, allHiddenOnLostFocus));}
+	}
+
+	private void addSceneObject(Integer sceneID, Integer stageID, Supplier<Parent> rootFactory, Double width, Double height) {
+		if (firstRun) {
+			defaultStage();
+			firstRun = false;
+		}
+		putSceneObject(sceneID, new SceneObject(this, sceneID, stageID, rootFactory, width, height, allHiddenOnLostFocus));
+	}
+
+	private void putSceneObject(int sceneID, SceneObject sceneObject) {
+		SceneObject oldSceneObject;
+		synchronized (registryLock) {oldSceneObject = sceneObjectMap.put(sceneID, sceneObject);}
+		if (oldSceneObject != null) {
+			unindexScene(sceneID, oldSceneObject);
+			forgetShowing(sceneID);
+			builtScenes.remove(oldSceneObject);
+			forgetShownScene(oldSceneObject);
+			oldSceneObject.dispose();
+		}
+		indexScene(sceneID, sceneObject);
+		sceneObject.setHiddenOnLostFocus(allHiddenOnLostFocus);
+		SceneEvents.registered(sceneID, stageIDOf(sceneObject));
+	}
+
+	private IntSet scenesOnStage(Integer stageID) {
+		if (stageID == null) return defaultStageScenes;
+		IntSet sceneIDs = stageScenes.get(stageID);
+		if (sceneIDs == null) {
+			sceneIDs = new IntSet();
+			stageScenes.put(stageID, sceneIDs);
+		}
+		return sceneIDs;
+	}
+
+	private void indexScene(int sceneID, SceneObject sceneObject) {
+		scenesOnStage(sceneObject.getStageID()).add(sceneID);
+	}
+
+	private void unindexScene(int sceneID, SceneObject sceneObject) {
+		Integer stageID  = sceneObject.getStageID();
+		IntSet  sceneIDs = (stageID == null) ? defaultStageScenes : stageScenes.get(stageID);
+		if (sceneIDs != null) {
+			sceneIDs.remove(sceneID);
+			if (sceneIDs.isEmpty() && stageID != null) stageScenes.remove(stageID);
+		}
+	}
+
+	/**
+	 * Takes a scene that is being removed or replaced out of the showing set.
+	 * Everything else only changes that set when a scene is shown or hidden.
+	 */
+	private void forgetShowing(int sceneID) {
+		if (showingScenes.remove(sceneID)) snapshotStale = true;
+	}
+
+	/**
+	 * SceneObject calls this whenever it is shown or hidden so that
+	 * visible() does not have to look at every scene to answer.
+	 */
+	void sceneShowingChanged(SceneObject sceneObject) {
+		int sceneID = sceneObject.getSceneID();
+		if (sceneObjectMap.get(sceneID) != sceneObject) return;
+		boolean changed = sceneObject.showing() ? showingScenes.add(sceneID) : showingScenes.remove(sceneID);
+		if (changed) snapshotStale = true;
+	}
+
+	/**
+	 * If you pick a stageID that Switcher is already using internally, the
+	 * internal Stage moves to a new ID and the stageID becomes yours.
+	 */
+	private void checkForIDConflict(Integer stageID) {
+		if (internalIDs.isReserved(stageID)) {
+			int newStageID = newInternalID();
+			synchronized (registryLock) {
+				Stage stage = stageMap.remove(stageID);
+				if (stage != null) stageMap.put(newStageID, stage);
+				IntSet sceneIDs = stageScenes.remove(stageID);
+				if (sceneIDs != null) {
+					sceneIDs.forEach(sid -> sceneObjectMap.get(sid).setStageID(newStageID));
+					stageScenes.put(newStageID, sceneIDs);
+				}
+				if (stageID.equals(defaultStageID)) defaultStageID = newStageID;
+			}
+			internalIDs.retire(stageID);
+		}
+	}
+
+	private Integer getSceneIDFromStageID(Integer stageID) {
+		IntSet sceneIDs = stageScenes.get(stageID);
+		return (sceneIDs == null) ? -1 : sceneIDs.first(-1);
+	}
+}
+
+
+/**
+ * SceneObject is a Class that contains all
+ * of the relevant information about a
+ * getScene so that the showScene methods
+ * can properly configure the stage and
+ * the getScene for display. This class is
+ * private to SwitcherContext.
+ */
+class SceneObject {
+
+	private final    SwitcherContext          context;
+	private final    int                      sceneID;
+	private final    Supplier<Parent>         rootFactory;
+	private final    boolean                  sceneProvided;
+	private          Parent                   root;
+	private volatile Scene                    scene;
+	private          String                   title            = "";
+	private volatile Integer                  stageID;
+	private          Double                   width;
+	private          Double                   height;
+	private          Double                   stageX           = -1.0;
+	private          Double                   stageY           = -1.0;
+	private          boolean                  customXY         = false;
+	private volatile boolean                  hideOnLostFocus;
+	private          boolean                  hidden           = false;
+	private          boolean                  onStage          = false;
+	private          CenterOn                 centerOn;
+	private          EventHandler<Event>      showEvent;
+	private          EventHandler<Event>      hideEvent;
+	private          CompletableFuture<Scene> preloading;
+	private          int                      nodeCount;
+	private          boolean                  builtBefore;
+	                 SceneObject              lruNewer;
+	                 SceneObject              lruOlder;
+	                 boolean                  lruLinked;
+
+	SceneObject(SwitcherContext context, int sceneID, Integer stageID, Parent parent, Double width, Double height, boolean hideOnLostFocus) {
+		this.context         = context;
+		this.sceneID         = sceneID;
+		this.stageID         = stageID;
+		this.width           = (width == null) ? getStage().getWidth() : width;
+		this.height          = (height == null) ? getStage().getHeight() : height;
+		this.rootFactory     = null;
+		this.sceneProvided   = false;
+		this.root            = parent;
+		this.scene           = context.isRootSwapping() ? null : new Scene(parent);
+		this.hideOnLostFocus = hideOnLostFocus;
+	}
+
+	SceneObject(SwitcherContext context, int sceneID, Integer stageID, Supplier<Parent> rootFactory, Double width, Double height, boolean hideOnLostFocus) {
+		this.context         = context;
+		this.sceneID         = sceneID;
+		this.stageID         = stageID;
+		this.width           = (width == null) ? getStage().getWidth() : width;
+		this.height          = (height == null) ? getStage().getHeight() : height;
+		this.rootFactory     = rootFactory;
+		this.sceneProvided   = false;
+		this.hideOnLostFocus = hideOnLostFocus;
+	}
+
+	SceneObject(SwitcherContext context, int sceneID, Integer stageID, Scene scene, Double width, Double height, boolean hideOnLostFocus) {
+		this.context         = context;
+		this.sceneID         = sceneID;
+		this.stageID         = stageID;
+		this.width           = (width == null) ? getStage().getWidth() : width;
+		this.height          = (height == null) ? getStage().getHeight() : height;
+		this.rootFactory     = null;
+		this.sceneProvided   = true;
+		this.root            = scene.getRoot();
+		this.scene           = scene;
+		this.hideOnLostFocus = hideOnLostFocus;
+	}
+
+	Stage getStage() {return Objects.requireNonNull(context.stageOf(this.stageID));}
+
+	private void setStageTitle() {
+		if (!title.equals("")) getStage().setTitle(title);
+	}
+
+	public void setTitle(String title)                      {this.title = title;}
+
+	public void setSceneCenterOn(CenterOn centerOn)         {this.centerOn = centerOn;}
+
+	public void setShowEvent(EventHandler<Event> showEvent) {this.showEvent = showEvent;}
+
+	public void setHideEvent(EventHandler<Event> hideEvent) {this.hideEvent = hideEvent;}
+
+	public boolean hideOnLostFocus() {
+		return hideOnLostFocus;
+	}
+
+	public void setHiddenOnLostFocus(boolean hideOnLostFocus) {
+		this.hideOnLostFocus = hideOnLostFocus;
+	}
+
+	/**
+	 * Called when the scene is taken out of Switcher, so that nothing
+	 * Switcher attached to a Stage keeps this SceneObject reachable.
+	 */
+	public void dispose() {
+		showEvent  = null;
+		hideEvent  = null;
+		preloading = null;
+	}
+
+	/**
+	 * In root swapping mode the root lives in the Stage's shared Scene once it
+	 * has been shown, so that is the Scene you get. Until then, and in the normal
+	 * mode, you get the Scene that belongs to this SceneObject.
+	 */
+	public Scene getScene() {
+		if (sceneProvided) return scene;
+		if (context.isRootSwapping()) {
+			build();
+			if (root.getScene() != null) return root.getScene();
+		}
+		return ownScene();
+	}
+
+	/**
+	 * The Scene as it stands right now, without building anything.
+	 * This is what getScene hands to threads other than the JavaFX Application Thread,
+	 * since creating a Scene or calling a root factory does not belong on them.
+	 */
+	Scene currentScene() {
+		if (root != null && root.getScene() != null) return root.getScene();
+		return scene;
+	}
+
+	/**
+	 * Scenes that were added with a root factory are not built until
+	 * they are needed. Everything that touches the root goes through here.
+	 */
+	public void build() {
+		if (root == null) {
+			Object event = SceneEvents.beginBuild();
+			setBuiltRoot(rootFactory.get());
+			SceneEvents.built(event, sceneID, context.stageIDOf(this), nodeCount, !builtBefore);
+			builtBefore = true;
+		}
+	}
+
+	private void setBuiltRoot(Parent newRoot) {
+		root      = newRoot;
+		nodeCount = countNodes(newRoot);
+		context.sceneUsed(this);
+	}
+
+	private static int countNodes(Node node) {
+		int count = 1;
+		if (node instanceof Parent) {
+			for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+				count += countNodes(child);
+			}
+		}
+		return count;
+	}
+
+	public boolean isBuilt()                {return root != null;}
+
+	public boolean isRebuildable()          {return rootFactory != null;}
+
+	public int getNodeCount()               {return nodeCount;}
+
+	/**
+	 * True when this scene's root is what a showing window is displaying right now.
+	 */
+	public boolean onScreen() {
+		return root != null && root.getScene() != null && root.getScene().getWindow() != null && root.getScene().getWindow().isShowing();
+	}
+
+	/**
+	 * Lets go of the root and Scene so they can be garbage collected. The root
+	 * factory builds them again the next time they are needed.
+	 */
+	public void release() {
+		if (!isRebuildable() || root == null) return;
+		Scene attached = root.getScene();
+		if (attached != null) {
+			if (attached == scene && attached.getWindow() instanceof Stage) {((Stage) attached.getWindow()).setScene(null);}
+			else {attached.setRoot(new Group());}
+		}
+		root      = null;
+		scene     = null;
+		nodeCount = 0;
+	}
+
+	/**
+	 * The Scene that belongs to this SceneObject alone. If root swapping has
+	 * borrowed the root for a Stage's shared Scene, it is taken back first,
+	 * since a Parent can only be the root of one Scene at a time.
+	 */
+	private Scene ownScene() {
+		build();
+		if (scene == null || scene.getRoot() != root) {
+			Scene attached = root.getScene();
+			if (attached != null && attached != scene) attached.setRoot(new Group());
+			if (scene == null) {scene = new Scene(root);}
+			else {scene.setRoot(root);}
+		}
+		return scene;
+	}
+
+	/**
+	 * Root swapping keeps one long lived Scene per Stage and only changes its root,
+	 * which spares JavaFX from setting up a whole new Scene on every switch. If this
+	 * is the first scene shown on the Stage, its own Scene is handed over to the Stage.
+	 */
+	private Scene swapRoot(Stage stage) {
+		build();
+		StageState stageState = context.getStageState(stage);
+		if (stageState.hostScene == null) {
+			if (scene != null && scene.getRoot() == root) {
+				stageState.hostScene = scene;
+				scene                = null;
+			}
+			else {
+				Scene attached = root.getScene();
+				if (attached != null) attached.setRoot(new Group());
+				stageState.hostScene = new Scene(root);
+			}
+		}
+		Scene hostScene = stageState.hostScene;
+		if (hostScene.getRoot() != root) {
+			Scene attached = root.getScene();
+			if (attached != null) attached.setRoot(new Group());
+			hostScene.setRoot(root);
+		}
+		else {context.stageWriteSkipped();}
+		return hostScene;
+	}
+
+	/**
+	 * Calls the root factory on the given Executor and creates the Scene back on the
+	 * JavaFX Application Thread. A second call while the first one is still running
+	 * gets the same future. If the Scene gets built by a showScene in the meantime,
+	 * the preloaded root is simply dropped.
+	 */
+	public CompletableFuture<Scene> preload(Executor executor) {
+		if (isBuilt()) return CompletableFuture.completedFuture(getScene());
+		if (preloading == null) {
+			CompletableFuture<Scene> future = new CompletableFuture<>();
+			preloading = future;
+			CompletableFuture.supplyAsync(rootFactory, executor)
+							 .whenComplete((newRoot, throwable) -> context.runOnFxThread(() -> {
+								 preloading = null;
+								 if (throwable != null) {future.completeExceptionally(throwable);}
+								 else {
+									 if (root == null) setBuiltRoot(newRoot);
+									 future.complete(getScene());
+									 context.enforceSceneBudget();
+								 }
+							 }));
+		}
+		return preloading;
+	}
+
+	public int getSceneID()                 {return this.sceneID;}
+
+	public Integer getStageID()             {return this.stageID;}
+
+	public void setStageID(Integer stageID) {this.stageID = stageID;}
+
+	public Double getWidth()                {return width;} // Returns width of stage
+
+	public Double getHeight()               {return height;} // Returns height of stage
+
+	public void setStageX(Double stageX) {
+		this.stageX = stageX;
+		customXY    = true;
+	}
+
+	public void setStageY(Double stageY) {
+		this.stageY = stageY;
+		customXY    = true;
+	}
+
+	public void setStageWidth(Double width) {
+		this.width = width;
+	}
+
+	public void setStageHeight(Double height) {
+		this.height = height;
+	}
+
+	public void hideScene() {
+		hideScene(null);
+	}
+
+	public void hideScene(CompletableFuture<Stage> hidden) {
+		context.runOnFxThread(() -> {
+			Object event = SceneEvents.beginHide();
+			Stage  stage = getStage();
+			if (hidden != null) {
+				if (stage.isShowing()) {context.completeOnWindowEvent(stage, WindowEvent.WINDOW_HIDDEN, hidden);}
+				else {hidden.complete(stage);}
+			}
+			stage.hide();
+			SceneEvents.hidden(event, sceneID, context.stageIDOf(this));
+			this.hidden  = true;
+			this.onStage = false;
+			context.sceneShowingChanged(this);
+			if (hideEvent != null) {
+				hideEvent.handle(new ActionEvent());
+			}
+		});
+	}
+
+	public void showScene(boolean showMaximized) {
+		showScene(showMaximized, null);
+	}
+
+	public void showScene(boolean showMaximized, CompletableFuture<Stage> shown) {
+		Stage   stage          = getStage();
+		boolean alreadyShowing = stage.isShowing();
+		if (shown != null && !alreadyShowing) context.completeOnWindowEvent(stage, WindowEvent.WINDOW_SHOWN, shown);
+		prepareShow(stage, showMaximized);
+		presentShow(stage);
+		if (shown != null && alreadyShowing) shown.complete(stage);
+	}
+
+	/**
+	 * First half of showScene. Puts this scene and its geometry on the Stage
+	 * without showing it, so that a batch can get every Stage ready before any
+	 * of them appear on the screen.
+	 */
+	void prepareShow(Stage stage, boolean showMaximized) {
+		SwitcherMetrics metrics = context.activeMetrics();
+		if (metrics != null && !isBuilt()) {
+			long start = System.nanoTime();
+			build();
+			metrics.record(sceneID, Phase.BUILD, start);
+		}
+		context.sceneShownOnStage(stage, this);
+		setStageTitle();
+		if (!hidden || !isBuilt()) {
+			if (showMaximized) {
+				applyWidth(stage, width);
+				applyHeight(stage, height);
+				applyMaximized(stage, true);
+			}
+			else {
+				applyMaximized(stage, false);
+				if (!customXY) {
+					Rectangle2D bounds = context.centeringBounds(centerOn, stage);
+					stageX = bounds.getMinX() + (bounds.getWidth() / 2) - (this.width / 2);
+					stageY = bounds.getMinY() + (bounds.getHeight() / 2) - (this.height / 2);
+				}
+				applyWidth(stage, width);
+				applyHeight(stage, height);
+				applyX(stage, stageX);
+				applyY(stage, stageY);
+			}
+			if (context.isRootSwapping() && !sceneProvided) {applyScene(stage, swapRoot(stage));}
+			else {applyScene(stage, ownScene());}
+		}
+		if (metrics != null && root != null) {
+			// JavaFX would do this in the next pulse anyway, doing it here lets us time it
+			long start = System.nanoTime();
+			root.applyCss();
+			metrics.record(sceneID, Phase.CSS, start);
+			start = System.nanoTime();
+			root.layout();
+			metrics.record(sceneID, Phase.LAYOUT, start);
+		}
+	}
+
+	/**
+	 * Second half of showScene. Puts the Stage on the screen and lets
+	 * everyone know this scene is showing.
+	 */
+	void presentShow(Stage stage) {
+		SwitcherMetrics metrics = context.activeMetrics();
+		long            start   = (metrics == null) ? 0 : System.nanoTime();
+		stage.show();
+		stage.toFront();
+		stage.requestFocus();
+		if (metrics != null) metrics.record(sceneID, Phase.NATIVE_SHOW, start);
+		context.sceneUsed(this);
+		this.hidden  = false;
+		this.onStage = true;
+		context.sceneShowingChanged(this);
+		if (showEvent != null) {
+			showEvent.handle(new ActionEvent());
+		}
+	}
+
+	/**
+	 * Another scene took this one's place on its Stage, so it is no longer showing,
+	 * and its size, position and Scene have to go back on the Stage the next time
+	 * it is shown, even if it had been hidden before.
+	 */
+	void replacedOnStage() {
+		this.onStage = false;
+		this.hidden  = false;
+	}
+
+	/**
+	 * True from the moment this scene is shown until it is hidden. A scene that
+	 * was added but never shown is not showing.
+	 */
+	public boolean showing() {return onStage;}
+
+	/*
+	 * Every write to a Stage property can cost a native window reconfigure and a
+	 * layout pass, so these only write when the Stage does not already have the value.
+	 * They compare against the Stage itself rather than what we set last time, so a
+	 * Stage that the user resized or moved still gets put back where it belongs.
+	 */
+
+	private void applyWidth(Stage stage, double width) {
+		if (stage.getWidth() != width) {stage.setWidth(width);}
+		else {context.stageWriteSkipped();}
+	}
+
+	private void applyHeight(Stage stage, double height) {
+		if (stage.getHeight() != height) {stage.setHeight(height);}
+		else {context.stageWriteSkipped();}
+	}
+
+	private void applyX(Stage stage, double x) {
+		if (stage.getX() != x) {stage.setX(x);}
+		else {context.stageWriteSkipped();}
+	}
+
+	private void applyY(Stage stage, double y) {
+		if (stage.getY() != y) {stage.setY(y);}
+		else {context.stageWriteSkipped();}
+	}
+
+	private void applyMaximized(Stage stage, boolean maximized) {
+		if (stage.isMaximized() != maximized) {stage.setMaximized(maximized);}
+		else {context.stageWriteSkipped();}
+	}
+
+	private void applyScene(Stage stage, Scene scene) {
+		if (stage.getScene() != scene) {stage.setScene(scene);}
+		else {context.stageWriteSkipped();}
+	}
+}
+
+/**
+ * This class simply maintains the history of
+ * scenes as they are shown so that Switcher can
+ * easily go back to the previously shown
+ * getScene when showLastScene is invoked, and
+ * forward again with showNextScene.
+ * Both directions are kept in fixed size rings
+ * of primitive ints, so once the history is full
+ * the oldest entries simply get overwritten.
+ * This class is private to SwitcherContext.
+ */
+class HistoryKeeper {
+
+	static final int     DEFAULT_DEPTH = 100;
+	private final IntRing pastSceneIDs  = new IntRing(DEFAULT_DEPTH);
+	private final IntRing nextSceneIDs  = new IntRing(DEFAULT_DEPTH);
+	private       int     lastSceneID;
+	private       boolean hasLastScene;
+	private       boolean deduplicate;
+	private       boolean changed;
+
+	public int getLastSceneID() {
+		if (!pastSceneIDs.isEmpty()) {
+			nextSceneIDs.push(lastSceneID);
+			lastSceneID = pastSceneIDs.pop();
+			changed     = true;
+		}
+		return lastSceneID;
+	}
+
+	public int getNextSceneID() {
+		if (!nextSceneIDs.isEmpty()) {
+			pastSceneIDs.push(lastSceneID);
+			lastSceneID = nextSceneIDs.pop();
+			changed     = true;
+		}
+		return lastSceneID;
+	}
+
+	public void showingNewScene(int newSceneID) {
+		if (hasLastScene) {
+			if (deduplicate && lastSceneID == newSceneID) return;
+			pastSceneIDs.push(lastSceneID);
+		}
+		nextSceneIDs.clear();
+		this.lastSceneID  = newSceneID;
+		this.hasLastScene = true;
+		this.changed      = true;
+	}
+
+	/**
+	 * True when the history has changed since the last call,
+	 * which is how the published snapshot knows to follow it.
+	 */
+	public boolean takeChanged() {
+		boolean wasChanged = changed;
+		changed = false;
+		return wasChanged;
+	}
+
+	public boolean hasHistory() {
+		return !pastSceneIDs.isEmpty();
+	}
+
+	public boolean hasNextScene() {
+		return !nextSceneIDs.isEmpty();
+	}
+
+	public void setDepth(int depth) {
+		pastSceneIDs.setCapacity(depth);
+		nextSceneIDs.setCapacity(depth);
+		changed = true;
+	}
+
+	public void setDeduplicate(boolean deduplicate) {
+		this.deduplicate = deduplicate;
+	}
+
+	/**
+	 * A stack of ints on top of a circular array. Pushing onto
+	 * a full ring drops the oldest entry instead of growing.
+	 */
+	private static final class IntRing {
+
+		private int[] ids;
+		private int   head;
+		private int   size;
+
+		IntRing(int capacity) {
+			ids = new int[capacity];
+		}
+
+		void push(int id) {
+			ids[head] = id;
+			head      = (head + 1) % ids.length;
+			if (size < ids.length) size++;
+		}
+
+		int pop() {
+			head = (head - 1 + ids.length) % ids.length;
+			size--;
+			return ids[head];
+		}
+
+		boolean isEmpty() {return size == 0;}
+
+		void clear()      {size = 0;}
+
+		void setCapacity(int capacity) {
+			int   keep   = Math.min(size, capacity);
+			int[] newIDs = new int[capacity];
+			for (int i = keep - 1; i >= 0; i--) {
+				newIDs[i] = pop();
+			}
+			ids  = newIDs;
+			size = keep;
+			head = keep % capacity;
+		}
+	}
+
+}
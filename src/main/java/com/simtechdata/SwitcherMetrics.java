@@ -0,0 +1,136 @@
+package com.simtechdata;
+
+import java.util.Arrays;
+
+/**
+ * SwitcherMetrics holds how long showing and hiding each scene took, split
+ * into the phases that make up a show, so that when a screen feels slow you
+ * can see which scene it is and whether the time goes into building it,
+ * styling it, laying it out or getting the window onto the screen.<BR><BR>
+ * Nothing is recorded until you call Switcher.setMetricsEnabled(true). Each
+ * scene gets a LatencyHistogram per phase the first time that phase is
+ * recorded for it, and the memory it takes does not grow after that.
+ */
+public final class SwitcherMetrics {
+
+	/**
+	 * The parts of a show or a hide that are timed.
+	 */
+	public enum Phase {
+		/**
+		 * From the call to showScene until the JavaFX Application Thread got to it.
+		 */
+		QUEUED,
+		/**
+		 * Calling the root factory of a scene that was not built, or was released.
+		 */
+		BUILD,
+		/**
+		 * Applying the style sheets to the root before the Stage is shown.
+		 */
+		CSS,
+		/**
+		 * Laying out the root before the Stage is shown.
+		 */
+		LAYOUT,
+		/**
+		 * Showing the Stage, bringing it to the front and giving it focus, which is
+		 * where the native window gets made and WINDOW_SHOWN is fired.
+		 */
+		NATIVE_SHOW,
+		/**
+		 * From the call to showScene until the Stage is on the screen, which includes all of the above.
+		 * For a coalesced show it also includes the wait for the next pulse, and for a batch it
+		 * runs from the call to batch until every Stage in it is on the screen.
+		 */
+		SHOW,
+		/**
+		 * From the call to hide until the Stage is hidden.
+		 */
+		HIDE
+	}
+
+	private static final Phase[]                    PHASES     = Phase.values();
+	private final        IntMap<LatencyHistogram[]> histograms = new IntMap<>();
+
+	SwitcherMetrics() {}
+
+	/**
+	 * @param startNanos what System.nanoTime returned when the phase started
+	 */
+	void record(int sceneID, Phase phase, long startNanos) {
+		long micros = (System.nanoTime() - startNanos) / 1000;
+		histogram(sceneID, phase).record(micros);
+	}
+
+	private synchronized LatencyHistogram histogram(int sceneID, Phase phase) {
+		LatencyHistogram[] phases = histograms.get(sceneID);
+		if (phases == null) {
+			phases = new LatencyHistogram[PHASES.length];
+			histograms.put(sceneID, phases);
+		}
+		LatencyHistogram histogram = phases[phase.ordinal()];
+		if (histogram == null) {
+			histogram               = new LatencyHistogram();
+			phases[phase.ordinal()] = histogram;
+		}
+		return histogram;
+	}
+
+	/**
+	 * @param sceneID the scene you want the times for
+	 * @param phase   the part of the show or hide you want the times for
+	 * @return the histogram, or null if nothing was recorded for that scene and phase
+	 */
+	public synchronized LatencyHistogram get(int sceneID, Phase phase) {
+		LatencyHistogram[] phases = histograms.get(sceneID);
+		return (phases == null) ? null : phases[phase.ordinal()];
+	}
+
+	/**
+	 * @return the sceneIDs that have anything recorded, from lowest to highest
+	 */
+	public synchronized int[] getSceneIDs() {
+		int[] sceneIDs = histograms.keys();
+		Arrays.sort(sceneIDs);
+		return sceneIDs;
+	}
+
+	/**
+	 * Empties every histogram, without giving back the memory they use.
+	 */
+	public synchronized void reset() {
+		histograms.forEach((sceneID, phases) -> {
+			for (LatencyHistogram histogram : phases) {
+				if (histogram != null) histogram.reset();
+			}
+		});
+	}
+
+	synchronized void forget(int sceneID) {histograms.remove(sceneID);}
+
+	/**
+	 * report puts every scene and phase that has anything recorded into a table
+	 * you can print or log, with the times in microseconds.
+	 *
+	 * @return one line per scene and phase, under a header line
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder(String.format("%10s %-12s %8s %10s %10s %10s %10s%n", "sceneID", "phase", "count", "p50", "p90", "p99", "max"));
+		for (int sceneID : getSceneIDs()) {
+			for (Phase phase : PHASES) {
+				LatencyHistogram histogram = get(sceneID, phase);
+				if (histogram == null || histogram.getCount() == 0) continue;
+				report.append(String.format("%10d %-12s %8d %10d %10d %10d %10d%n",
+											sceneID,
+											phase,
+											histogram.getCount(),
+											histogram.getPercentileMicros(50),
+											histogram.getPercentileMicros(90),
+											histogram.getPercentileMicros(99),
+											histogram.getMaxMicros()));
+			}
+		}
+		return report.toString();
+	}
+}
@@ -0,0 +1,182 @@
+package com.simtechdata;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SceneEvents is where Switcher reports what happens to scenes. This is the Java 11
+ * version, which the multi-release jar loads in place of the Java 8 one, and it commits
+ * JDK Flight Recorder events in the Switcher category. They cost nothing unless a
+ * recording has them enabled, which the begin methods check before they allocate.<BR><BR>
+ * Every event carries the sceneID and the stageID. Shows, builds and hides are duration
+ * events that cover the work done on the JavaFX Application Thread.
+ * This class is private to Switcher.
+ */
+final class SceneEvents {
+
+	private SceneEvents() {}
+
+	@Name("com.simtechdata.switcher.SceneRegistered")
+	@Label("Scene Registered")
+	@Category("Switcher")
+	@Description("A scene was added to Switcher, or replaced one with the same sceneID")
+	@StackTrace(false)
+	static final class SceneRegistered extends Event {
+		@Label("Scene ID") int sceneID;
+		@Label("Stage ID") int stageID;
+	}
+
+	@Name("com.simtechdata.switcher.ShowRequested")
+	@Label("Show Requested")
+	@Category("Switcher")
+	@Description("showScene was called, on whatever thread called it. The stageID is the one the scene had at that moment, or -1 if it was not added yet")
+	static final class ShowRequested extends Event {
+		@Label("Scene ID") int sceneID;
+		@Label("Stage ID") int stageID;
+	}
+
+	@Name("com.simtechdata.switcher.SceneShown")
+	@Label("Scene Shown")
+	@Category("Switcher")
+	@Description("A scene was put on its Stage and the Stage was shown")
+	@StackTrace(false)
+	static final class SceneShown extends Event {
+		@Label("Scene ID") int sceneID;
+		@Label("Stage ID") int stageID;
+		@Label("From History") boolean fromHistory;
+	}
+
+	@Name("com.simtechdata.switcher.SceneBuilt")
+	@Label("Scene Built")
+	@Category("Switcher")
+	@Description("The root factory of a scene was called")
+	@StackTrace(false)
+	static final class SceneBuilt extends Event {
+		@Label("Scene ID") int sceneID;
+		@Label("Stage ID") int stageID;
+		@Label("Node Count") int nodeCount;
+		@Label("First Build") boolean firstBuild;
+	}
+
+	@Name("com.simtechdata.switcher.SceneHidden")
+	@Label("Scene Hidden")
+	@Category("Switcher")
+	@Description("The Stage of a scene was hidden")
+	@StackTrace(false)
+	static final class SceneHidden extends Event {
+		@Label("Scene ID") int sceneID;
+		@Label("Stage ID") int stageID;
+	}
+
+	@Name("com.simtechdata.switcher.HistoryMoved")
+	@Label("History Moved")
+	@Category("Switcher")
+	@Description("showLastScene or showNextScene took a scene from the history")
+	@StackTrace(false)
+	static final class HistoryMoved extends Event {
+		@Label("Scene ID") int sceneID;
+		@Label("Stage ID") int stageID;
+		@Label("Back") boolean back;
+	}
+
+	@Name("com.simtechdata.switcher.SceneEvicted")
+	@Label("Scene Evicted")
+	@Category("Switcher")
+	@Description("A factory built scene let go of its root because of the memory budget or memory pressure")
+	@StackTrace(false)
+	static final class SceneEvicted extends Event {
+		@Label("Scene ID") int sceneID;
+		@Label("Stage ID") int stageID;
+		@Label("Node Count") int nodeCount;
+	}
+
+	static void registered(int sceneID, int stageID) {
+		SceneRegistered event = new SceneRegistered();
+		if (event.shouldCommit()) {
+			event.sceneID = sceneID;
+			event.stageID = stageID;
+			event.commit();
+		}
+	}
+
+	static void showRequested(SwitcherContext context, int sceneID) {
+		ShowRequested event = new ShowRequested();
+		if (event.shouldCommit()) {
+			event.sceneID = sceneID;
+			event.stageID = context.stageIDOf(sceneID);
+			event.commit();
+		}
+	}
+
+	static Object beginShow() {return begin(new SceneShown());}
+
+	static void shown(Object event, int sceneID, int stageID, boolean fromHistory) {
+		if (event == null) return;
+		SceneShown shown = (SceneShown) event;
+		shown.end();
+		if (shown.shouldCommit()) {
+			shown.sceneID     = sceneID;
+			shown.stageID     = stageID;
+			shown.fromHistory = fromHistory;
+			shown.commit();
+		}
+	}
+
+	static Object beginBuild() {return begin(new SceneBuilt());}
+
+	static void built(Object event, int sceneID, int stageID, int nodeCount, boolean firstBuild) {
+		if (event == null) return;
+		SceneBuilt built = (SceneBuilt) event;
+		built.end();
+		if (built.shouldCommit()) {
+			built.sceneID    = sceneID;
+			built.stageID    = stageID;
+			built.nodeCount  = nodeCount;
+			built.firstBuild = firstBuild;
+			built.commit();
+		}
+	}
+
+	static Object beginHide() {return begin(new SceneHidden());}
+
+	static void hidden(Object event, int sceneID, int stageID) {
+		if (event == null) return;
+		SceneHidden hidden = (SceneHidden) event;
+		hidden.end();
+		if (hidden.shouldCommit()) {
+			hidden.sceneID = sceneID;
+			hidden.stageID = stageID;
+			hidden.commit();
+		}
+	}
+
+	static void historyMoved(int sceneID, int stageID, boolean back) {
+		HistoryMoved event = new HistoryMoved();
+		if (event.shouldCommit()) {
+			event.sceneID = sceneID;
+			event.stageID = stageID;
+			event.back    = back;
+			event.commit();
+		}
+	}
+
+	static void evicted(int sceneID, int stageID, int nodeCount) {
+		SceneEvicted event = new SceneEvicted();
+		if (event.shouldCommit()) {
+			event.sceneID   = sceneID;
+			event.stageID   = stageID;
+			event.nodeCount = nodeCount;
+			event.commit();
+		}
+	}
+
+	private static Event begin(Event event) {
+		if (!event.isEnabled()) return null;
+		event.begin();
+		return event;
+	}
+}
@@ -0,0 +1,85 @@
+package com.simtechdata.switcher.leakcheck;
+
+import com.simtechdata.Switcher;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runnable JavaFX application that checks Switcher for leaks.
+ *
+ * Each round adds a scene to the default Stage and a scene on a Stage
+ * of its own, turns on hide on lost focus a few times over, shows and
+ * hides them, then takes them back out with removeScene and removeStage.
+ * We hold on to every root Parent and Stage with a WeakReference only,
+ * so once Switcher has let go of them, the garbage collector can clear
+ * them. Anything still reachable at the end is a leak.
+ */
+public class Main extends Application {
+
+	private static final int ROUNDS         = 500;
+	private static final int DEFAULT_SCENE  = 1;
+	private static final int FIRST_SCENE_ID = 1000;
+	private static final int FIRST_STAGE_ID = 5000;
+
+	private final List<WeakReference<Object>> references = new ArrayList<>();
+
+	@Override
+	public void start(Stage primaryStage) {
+		Switcher.init(primaryStage);
+		Switcher.addScene(DEFAULT_SCENE, new VBox(new Label("Leak check")), 300.0, 100.0);
+		Switcher.showScene(DEFAULT_SCENE);
+
+		for (int round = 0; round < ROUNDS; round++) {
+			int   sceneID      = FIRST_SCENE_ID + (round * 2);
+			int   stageSceneID = sceneID + 1;
+			int   stageID      = FIRST_STAGE_ID + round;
+			VBox  root         = new VBox(new Label("Scene " + sceneID));
+			VBox  stageRoot    = new VBox(new Label("Scene " + stageSceneID));
+			Stage stage        = new Stage();
+			references.add(new WeakReference<>(root));
+			references.add(new WeakReference<>(stageRoot));
+			references.add(new WeakReference<>(stage));
+
+			Switcher.addStage(stageID, stage);
+			Switcher.addScene(sceneID, root, 300.0, 100.0);
+			Switcher.addScene(stageSceneID, stageID, stageRoot, 300.0, 100.0);
+			Switcher.runOnShown(stageSceneID, e -> root.getChildren().size());
+			for (int i = 0; i < 3; i++) {
+				Switcher.setHideOnLostFocus(true);
+			}
+			Switcher.showScene(stageSceneID);
+			Switcher.hide(stageSceneID);
+			Switcher.setHideOnLostFocus(false);
+			Switcher.removeScene(sceneID);
+			Switcher.removeScene(stageSceneID);
+			Switcher.removeStage(stageID);
+		}
+		Switcher.showScene(DEFAULT_SCENE);
+
+		// Give JavaFX a pulse to finish with the hidden stages before we look
+		Platform.runLater(this::check);
+	}
+
+	private void check() {
+		for (int i = 0; i < 10; i++) {
+			System.gc();
+			System.runFinalization();
+		}
+		long leaked = references.stream().filter(reference -> reference.get() != null).count();
+		System.out.println(leaked + " of " + references.size() + " objects are still reachable after " + ROUNDS + " rounds");
+		System.out.println((leaked == 0) ? "PASS" : "FAIL");
+		Platform.exit();
+		System.exit(leaked == 0 ? 0 : 1);
+	}
+
+	public static void main(String[] args) {
+		Application.launch(Main.class, args);
+	}
+}
@@ -0,0 +1,52 @@
+package com.simtechdata.switcher.regression;
+
+import com.sun.javafx.application.PlatformImpl;
+import javafx.application.Platform;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Starts the JavaFX toolkit without an Application and runs work on its
+ * thread, waiting for it to finish. Surefire runs the tests with the Monocle
+ * Headless properties set in the argLine, so no display is needed.
+ */
+final class FxThread {
+
+	private static boolean started = false;
+
+	private FxThread() {}
+
+	static synchronized void start() {
+		if (started) return;
+		CountDownLatch latch = new CountDownLatch(1);
+		PlatformImpl.startup(latch::countDown);
+		await(latch);
+		Platform.setImplicitExit(false);
+		started = true;
+	}
+
+	/**
+	 * Runs the work on the JavaFX Application Thread and returns once it is done,
+	 * rethrowing anything it threw.
+	 */
+	static void run(Runnable work) {
+		CountDownLatch             latch  = new CountDownLatch(1);
+		AtomicReference<Throwable> thrown = new AtomicReference<>();
+		Platform.runLater(() -> {
+			try {work.run();}
+			catch (Throwable e) {thrown.set(e);}
+			finally {latch.countDown();}
+		});
+		await(latch);
+		if (thrown.get() != null) throw new IllegalStateException("Work on the JavaFX Application Thread failed", thrown.get());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {latch.await();}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
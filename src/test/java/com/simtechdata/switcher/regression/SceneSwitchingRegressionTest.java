@@ -0,0 +1,507 @@
+package com.simtechdata.switcher.regression;
+
+import com.simtechdata.Switcher;
+import com.simtechdata.SwitcherContext;
+import com.simtechdata.SwitcherMetrics.Phase;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scripts the flows of the basic, advanced, letsgetnuts, onshown and leakcheck
+ * demos against headless Monocle, and fails the build when scene switching gets
+ * slower, allocates more, or leaks. The budgets are loose enough for a busy CI
+ * box and can be changed with system properties:
+ * <ul>
+ * <li>switcher.budget.showMillis - median time from showSceneAsync to WINDOW_SHOWN (default 250)</li>
+ * <li>switcher.budget.switchBytes - bytes allocated on the FX thread per switch between built scenes (default 8192)</li>
+ * </ul>
+ * Switcher is static, so every test uses sceneIDs and stageIDs of its own.
+ */
+public class SceneSwitchingRegressionTest {
+
+	private static final long SHOW_BUDGET_MILLIS  = Long.getLong("switcher.budget.showMillis", 250);
+	private static final long SWITCH_BUDGET_BYTES = Long.getLong("switcher.budget.switchBytes", 8192);
+	private static final long TIMEOUT_SECONDS     = 10;
+
+	@BeforeClass
+	public static void startFx() {
+		FxThread.start();
+	}
+
+	private static VBox root(String text) {
+		return new VBox(new Label(text));
+	}
+
+	private static Stage await(CompletableFuture<Stage> future) throws Exception {
+		return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * basic: two scenes on the default Stage, forward and back again.
+	 */
+	@Test
+	public void basicFlowSwitchesAndGoesBack() throws Exception {
+		Switcher.addScene(101, root("First"), 400.0, 300.0);
+		Switcher.addScene(102, root("Second"), 400.0, 300.0);
+		await(Switcher.showSceneAsync(101));
+		await(Switcher.showSceneAsync(102));
+		FxThread.run(() -> {
+			assertTrue(Switcher.isShowing(102));
+			assertTrue(Switcher.lastSceneAvailable());
+			Switcher.showLastScene();
+			assertTrue(Switcher.isShowing(101));
+			assertFalse(Switcher.isShowing(102));
+		});
+		await(Switcher.hideSceneAsync(101));
+	}
+
+	/**
+	 * Adding a scene does not make it showing, only showing it does, and hiding it takes it back out.
+	 */
+	@Test
+	public void addedScenesAreNotShowingUntilShown() throws Exception {
+		Switcher.addScene(151, 1501, root("Added"), 200.0, 100.0);
+		FxThread.run(() -> assertFalse(Switcher.isShowing(151)));
+		assertFalse(Switcher.isShowing(151));
+		await(Switcher.showSceneAsync(151));
+		FxThread.run(() -> assertTrue(Switcher.isShowing(151)));
+		assertTrue(Switcher.isShowing(151));
+		await(Switcher.hideSceneAsync(151));
+		FxThread.run(() -> assertFalse(Switcher.isShowing(151)));
+		assertFalse(Switcher.isShowing(151));
+	}
+
+	/**
+	 * advanced and letsgetnuts: scenes on Stages of their own with a style and a
+	 * modality, shown together and hidden again.
+	 */
+	@Test
+	public void stagesWithStyleAndModalityShowTogether() throws Exception {
+		Switcher.addScene(201, 2001, root("Transparent"), 300.0, 200.0, StageStyle.TRANSPARENT, null);
+		Switcher.addScene(202, 2002, root("Window modal"), 300.0, 200.0, StageStyle.DECORATED, Modality.WINDOW_MODAL);
+		Switcher.batch(b -> b.show(201).show(202));
+		FxThread.run(() -> {
+			assertTrue(Switcher.isShowing(201));
+			assertTrue(Switcher.isShowing(202));
+			assertEquals(StageStyle.TRANSPARENT, Switcher.getStageForScene(201).getStyle());
+			assertEquals(Modality.WINDOW_MODAL, Switcher.getStageForScene(202).getModality());
+		});
+		await(Switcher.hideSceneAsync(201));
+		await(Switcher.hideSceneAsync(202));
+	}
+
+	/**
+	 * onshown: the handler given to runOnShown fires once per show.
+	 */
+	@Test
+	public void runOnShownFiresOncePerShow() throws Exception {
+		AtomicInteger shownCount = new AtomicInteger();
+		Switcher.addScene(301, 3001, new AnchorPane(), 200.0, 100.0);
+		Switcher.runOnShown(301, e -> shownCount.incrementAndGet());
+		for (int i = 0; i < 3; i++) {
+			await(Switcher.showSceneAsync(301));
+			await(Switcher.hideSceneAsync(301));
+		}
+		assertEquals(3, shownCount.get());
+	}
+
+	/**
+	 * Moving back to a scene that was removed shows nothing, but it still moves the
+	 * history, and other threads have to see the same history as the FX thread.
+	 */
+	@Test
+	public void historyMovesArePublishedEvenWhenTheSceneIsGone() throws Exception {
+		SwitcherContext context = new SwitcherContext();
+		context.addScene(171, 1701, root("First"), 200.0, 100.0);
+		context.addScene(172, 1701, root("Removed"), 200.0, 100.0);
+		context.addScene(173, 1701, root("Last"), 200.0, 100.0);
+		await(context.showSceneAsync(171));
+		await(context.showSceneAsync(172));
+		await(context.showSceneAsync(173));
+		context.removeScene(172);
+		context.showLastScene();
+		boolean[] onFx = new boolean[2];
+		FxThread.run(() -> {
+			onFx[0] = context.lastSceneAvailable();
+			onFx[1] = context.nextSceneAvailable();
+		});
+		assertTrue(onFx[1]);
+		assertEquals(onFx[0], context.lastSceneAvailable());
+		assertEquals(onFx[1], context.nextSceneAvailable());
+		await(context.hideSceneAsync(173));
+	}
+
+	/**
+	 * With shows coalesced, a runOnShown handler or a showSceneAsync future can ask for
+	 * the next show while the pending shows are being applied. That show has to happen
+	 * in the next pulse, and later shows on its Stage must not be dropped because of it.
+	 */
+	@Test
+	public void showsAskedForWhileCoalescedShowsApplyAreShownToo() throws Exception {
+		SwitcherContext                           context = new SwitcherContext();
+		AtomicReference<CompletableFuture<Stage>> chained = new AtomicReference<>();
+		context.setCoalesceShows(true);
+		context.addScene(181, 1801, root("First"), 200.0, 100.0);
+		context.addScene(182, 1802, root("Chained"), 200.0, 100.0);
+		context.addScene(183, 1803, root("Composed"), 200.0, 100.0);
+		context.runOnShown(181, e -> chained.compareAndSet(null, context.showSceneAsync(182)));
+		await(context.showSceneAsync(181).thenCompose(stage -> context.showSceneAsync(183)));
+		await(chained.get());
+		FxThread.run(() -> {
+			assertTrue(context.isShowing(181));
+			assertTrue(context.isShowing(182));
+			assertTrue(context.isShowing(183));
+		});
+		await(context.hideSceneAsync(182));
+		await(context.showSceneAsync(182));
+		assertEquals(0, context.getDroppedShows());
+		await(context.hideSceneAsync(181));
+		await(context.hideSceneAsync(182));
+		await(context.hideSceneAsync(183));
+	}
+
+	/**
+	 * A null sceneID or stageID only gets the usual warning, as it did before the int overloads.
+	 */
+	@Test
+	public void nullSceneIDsWarnInsteadOfThrowing() throws Exception {
+		Integer sceneID = null;
+		Switcher.show(sceneID);
+		Switcher.showScene(sceneID);
+		Switcher.hide(sceneID);
+		assertNull(Switcher.getScene(sceneID));
+		assertFalse(Switcher.visible(sceneID));
+		assertFalse(Switcher.isShowing(sceneID));
+		FxThread.run(() -> {
+			Switcher.show(sceneID);
+			Switcher.hide(sceneID);
+			assertNull(Switcher.getScene(sceneID));
+			assertFalse(Switcher.isShowing(sceneID));
+			Switcher.removeStage(null);
+		});
+	}
+
+	/**
+	 * On the FX thread a show is done by the time showScene returns.
+	 */
+	@Test
+	public void showOnFxThreadIsDoneWhenShowSceneReturns() throws Exception {
+		Switcher.addScene(351, 3501, root("Synchronous"), 200.0, 100.0);
+		Switcher.addScene(352, 3502, root("Synchronous at"), 200.0, 100.0);
+		FxThread.run(() -> {
+			Switcher.showScene(351);
+			assertTrue(Switcher.getStageForScene(351).isShowing());
+			Switcher.showSceneAt(352, 10.0, 10.0);
+			assertTrue(Switcher.getStageForScene(352).isShowing());
+		});
+		await(Switcher.hideSceneAsync(351));
+		await(Switcher.hideSceneAsync(352));
+	}
+
+	/**
+	 * From any other thread a show takes a single hop to the FX thread. A runLater posted
+	 * right after showScene runs after that hop, so the Stage must already be showing
+	 * when it does. With a second hop in the show path, it would not be yet.
+	 */
+	@Test
+	public void showFromAnotherThreadIsDoneWithinOneHop() throws Exception {
+		Switcher.addScene(361, 3601, root("One hop"), 200.0, 100.0);
+		Switcher.addScene(362, 3602, root("One hop split"), 200.0, 100.0);
+		FxThread.run(() -> {});
+		Stage[] stages = new Stage[2];
+		FxThread.run(() -> {
+			stages[0] = Switcher.getStageForScene(361);
+			stages[1] = Switcher.getStageForScene(362);
+		});
+		boolean[]      showing = new boolean[2];
+		CountDownLatch marker  = new CountDownLatch(1);
+		Switcher.showScene(361);
+		Switcher.showSceneSplitXY(362, 300.0, 300.0);
+		Platform.runLater(() -> {
+			showing[0] = stages[0].isShowing();
+			showing[1] = stages[1].isShowing();
+			marker.countDown();
+		});
+		assertTrue(marker.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertTrue("showScene was not done when the next runLater ran", showing[0]);
+		assertTrue("showSceneSplitXY was not done when the next runLater ran", showing[1]);
+		await(Switcher.hideSceneAsync(361));
+		await(Switcher.hideSceneAsync(362));
+	}
+
+	@Test
+	public void showReachesWindowShownWithinBudget() throws Exception {
+		Switcher.addScene(401, 4001, root("Timed"), 300.0, 200.0);
+		for (int i = 0; i < 20; i++) {
+			await(Switcher.showSceneAsync(401));
+			await(Switcher.hideSceneAsync(401));
+		}
+		long[] millis = new long[51];
+		for (int i = 0; i < millis.length; i++) {
+			long start = System.nanoTime();
+			await(Switcher.showSceneAsync(401));
+			millis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			await(Switcher.hideSceneAsync(401));
+		}
+		Arrays.sort(millis);
+		long median = millis[millis.length / 2];
+		assertTrue("median show to WINDOW_SHOWN took " + median + " ms, budget is " + SHOW_BUDGET_MILLIS + " ms", median <= SHOW_BUDGET_MILLIS);
+	}
+
+	/**
+	 * Switching between two built scenes on one Stage, once with a Scene for every
+	 * scene and once with root swapping, counting what the FX thread allocates.
+	 */
+	@Test
+	public void switchingBetweenBuiltScenesStaysWithinAllocationBudget() throws Exception {
+		long setScene = bytesPerSwitch(false, 501, 5001);
+		long swapRoot = bytesPerSwitch(true, 511, 5011);
+		String both = "setScene allocated " + setScene + " bytes per switch, root swapping " + swapRoot + ", budget is " + SWITCH_BUDGET_BYTES;
+		System.out.println(both);
+		assertTrue(both, setScene <= SWITCH_BUDGET_BYTES);
+		assertTrue(both, swapRoot <= SWITCH_BUDGET_BYTES);
+	}
+
+	@SuppressWarnings("restriction")
+	private static long bytesPerSwitch(boolean rootSwapping, int firstSceneID, int stageID) throws Exception {
+		com.sun.management.ThreadMXBean threads   = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		SwitcherContext                 context   = new SwitcherContext();
+		int                             switches  = 1000;
+		AtomicLong                      perSwitch = new AtomicLong();
+		context.setRootSwapping(rootSwapping);
+		context.addScene(firstSceneID, stageID, root("A"), 300.0, 200.0);
+		context.addScene(firstSceneID + 1, stageID, root("B"), 300.0, 200.0);
+		FxThread.run(() -> {
+			for (int i = 0; i < 100; i++) {
+				context.showScene(firstSceneID + (i % 2));
+			}
+			long threadID = Thread.currentThread().getId();
+			long before   = threads.getThreadAllocatedBytes(threadID);
+			for (int i = 0; i < switches; i++) {
+				context.showScene(firstSceneID + (i % 2));
+			}
+			perSwitch.set((threads.getThreadAllocatedBytes(threadID) - before) / switches);
+		});
+		await(context.hideSceneAsync(firstSceneID + 1));
+		return perSwitch.get();
+	}
+
+	/**
+	 * Two contexts can use the same sceneIDs without seeing each other's scenes,
+	 * and neither one touches the default context behind Switcher. The first context
+	 * keeps 701 showing on a Stage of its own, so if the contexts shared anything,
+	 * the second one would see its 701 as showing too.
+	 */
+	@Test
+	public void contextsDoNotShareScenesOrHistory() throws Exception {
+		SwitcherContext first  = new SwitcherContext();
+		SwitcherContext second = new SwitcherContext();
+		first.addScene(701, 7001, root("First 701"), 200.0, 100.0);
+		first.addScene(702, 7002, root("First 702"), 200.0, 100.0);
+		second.addScene(701, root("Second 701"), 200.0, 100.0);
+		second.addScene(703, root("Second 703"), 200.0, 100.0);
+		await(first.showSceneAsync(701));
+		await(first.showSceneAsync(702));
+		FxThread.run(() -> {
+			assertTrue(first.isShowing(701));
+			assertTrue(first.isShowing(702));
+			assertTrue(first.lastSceneAvailable());
+			assertFalse(second.isShowing(701));
+			assertFalse(second.visible());
+			assertFalse(second.lastSceneAvailable());
+			assertFalse(Switcher.isShowing(701));
+			assertFalse(Switcher.isShowing(702));
+			assertNotSame(first.getStageForScene(701), second.getStageForScene(701));
+		});
+		await(second.showSceneAsync(703));
+		await(second.showSceneAsync(701));
+		FxThread.run(() -> {
+			assertTrue(second.isShowing(701));
+			assertFalse(second.isShowing(703));
+			assertTrue(first.isShowing(701));
+			assertTrue(first.isShowing(702));
+			second.showLastScene();
+			assertTrue(second.isShowing(703));
+			assertFalse(second.isShowing(701));
+			assertTrue(first.isShowing(701));
+		});
+		await(first.hideSceneAsync(701));
+		await(first.hideSceneAsync(702));
+		await(second.hideSceneAsync(703));
+	}
+
+	/**
+	 * stress: worker threads add, show, hide and remove their own scenes on their own
+	 * Stages through the command queue. Each one keeps track of what its calls should
+	 * have left behind, and afterwards the snapshot that other threads read and the
+	 * live state on the FX thread must both agree with that.
+	 */
+	@Test
+	public void concurrentCallsLeaveTheStateTheCallsDescribe() throws Exception {
+		int                               threads   = 4;
+		int                               perThread = 10;
+		int                               rounds    = 500;
+		SwitcherContext                   context   = new SwitcherContext();
+		boolean[][]                       exists    = new boolean[threads][perThread];
+		int[]                             shownIDs  = new int[threads];
+		List<Throwable>                   errors    = Collections.synchronizedList(new ArrayList<>());
+		Thread.UncaughtExceptionHandler[] fxHandler = new Thread.UncaughtExceptionHandler[1];
+		FxThread.run(() -> {
+			fxHandler[0] = Thread.currentThread().getUncaughtExceptionHandler();
+			Thread.currentThread().setUncaughtExceptionHandler((thread, e) -> errors.add(e));
+		});
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int worker  = t;
+			int firstID = 9000 + (t * perThread);
+			int stageID = 90000 + t;
+			shownIDs[t] = -1;
+			workers[t]  = new Thread(() -> {
+				Random random = new Random(worker);
+				try {
+					for (int round = 0; round < rounds; round++) {
+						int index   = random.nextInt(perThread);
+						int sceneID = firstID + index;
+						switch (random.nextInt(4)) {
+							case 0:
+								context.addScene(sceneID, stageID, root("Scene " + sceneID), 200.0, 100.0);
+								exists[worker][index] = true;
+								if (shownIDs[worker] == sceneID) shownIDs[worker] = -1;
+								break;
+							case 1:
+								if (!exists[worker][index]) break;
+								context.removeScene(sceneID);
+								exists[worker][index] = false;
+								if (shownIDs[worker] == sceneID) shownIDs[worker] = -1;
+								break;
+							case 2:
+								if (!exists[worker][index]) break;
+								context.hide(sceneID);
+								if (shownIDs[worker] == sceneID) shownIDs[worker] = -1;
+								break;
+							default:
+								if (!exists[worker][index]) break;
+								context.showScene(sceneID);
+								shownIDs[worker] = sceneID;
+						}
+					}
+				}
+				catch (RuntimeException e) {errors.add(e);}
+			}, "Regression-Stress-" + t);
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS * 3));
+		}
+		FxThread.run(() -> Thread.currentThread().setUncaughtExceptionHandler(fxHandler[0]));
+		List<String> snapshotWrong = new ArrayList<>();
+		List<String> liveWrong     = new ArrayList<>();
+		checkEndState(context, exists, shownIDs, snapshotWrong);
+		FxThread.run(() -> checkEndState(context, exists, shownIDs, liveWrong));
+		assertTrue("exceptions: " + errors, errors.isEmpty());
+		assertTrue("snapshot disagrees: " + snapshotWrong, snapshotWrong.isEmpty());
+		assertTrue("live state disagrees: " + liveWrong, liveWrong.isEmpty());
+		for (int t = 0; t < threads; t++) {
+			if (shownIDs[t] >= 0) await(context.hideSceneAsync(shownIDs[t]));
+		}
+	}
+
+	private static void checkEndState(SwitcherContext context, boolean[][] exists, int[] shownIDs, List<String> wrong) {
+		for (int t = 0; t < exists.length; t++) {
+			for (int i = 0; i < exists[t].length; i++) {
+				int     sceneID = 9000 + (t * exists[t].length) + i;
+				boolean found   = context.getStageForScene(sceneID) != null;
+				boolean showing = context.isShowing(sceneID);
+				if (found != exists[t][i] || showing != (shownIDs[t] == sceneID)) wrong.add(sceneID + " exists=" + found + " showing=" + showing);
+			}
+		}
+	}
+
+	/**
+	 * With metrics on, one show and one hide fill in every phase for the scene.
+	 */
+	@Test
+	public void metricsRecordEveryPhaseOfAShowAndHide() throws Exception {
+		SwitcherContext context = new SwitcherContext();
+		context.setMetricsEnabled(true);
+		context.addScene(801, () -> root("Measured"), 200.0, 100.0);
+		await(context.showSceneAsync(801));
+		await(context.hideSceneAsync(801));
+		for (Phase phase : Phase.values()) {
+			assertNotNull("nothing recorded for " + phase, context.metrics().get(801, phase));
+			assertEquals(1, context.metrics().get(801, phase).getCount());
+		}
+	}
+
+	/**
+	 * leakcheck: after the scenes and Stages are shown, hidden and removed,
+	 * nothing Switcher was given is still reachable.
+	 */
+	@Test
+	public void noStagesOrRootsLeakAfterTeardown() throws Exception {
+		List<WeakReference<Object>> references = new ArrayList<>();
+		FxThread.run(() -> Switcher.setStagePoolSize(0));
+		for (int round = 0; round < 50; round++) {
+			int     sceneID    = 6000 + (round * 2);
+			int     ownSceneID = sceneID + 1;
+			int     stageID    = 60000 + (round * 2);
+			int     ownStageID = stageID + 1;
+			VBox    root       = root("Scene " + sceneID);
+			VBox    ownRoot    = root("Scene " + ownSceneID);
+			Stage[] stage      = new Stage[1];
+			FxThread.run(() -> stage[0] = new Stage());
+			references.add(new WeakReference<>(root));
+			references.add(new WeakReference<>(ownRoot));
+			references.add(new WeakReference<>(stage[0]));
+
+			Switcher.addStage(stageID, stage[0]);
+			Switcher.addScene(sceneID, stageID, root, 200.0, 100.0);
+			Switcher.addScene(ownSceneID, ownStageID, ownRoot, 200.0, 100.0);
+			Switcher.setHideOnLostFocus(true);
+			await(Switcher.showSceneAsync(sceneID));
+			Stage created = await(Switcher.showSceneAsync(ownSceneID));
+			references.add(new WeakReference<>(created));
+			created = null;
+			await(Switcher.hideSceneAsync(sceneID));
+			await(Switcher.hideSceneAsync(ownSceneID));
+			Switcher.setHideOnLostFocus(false);
+			Switcher.removeScene(sceneID);
+			Switcher.removeScene(ownSceneID);
+			Switcher.removeStage(stageID);
+			Switcher.removeStage(ownStageID);
+			stage[0] = null;
+		}
+		// One more trip through the FX thread so the queued removes have run
+		FxThread.run(() -> {});
+		for (int i = 0; i < 10; i++) {
+			System.gc();
+			System.runFinalization();
+		}
+		long leaked = references.stream().filter(reference -> reference.get() != null).count();
+		FxThread.run(() -> Switcher.setStagePoolSize(8));
+		assertEquals("objects still reachable after teardown", 0, leaked);
+	}
+}
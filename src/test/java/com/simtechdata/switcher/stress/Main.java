@@ -0,0 +1,187 @@
+package com.simtechdata.switcher.stress;
+
+import com.simtechdata.Switcher;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runnable JavaFX application that calls Switcher from many threads at once.
+ *
+ * Each worker thread has its own range of sceneIDs and its own Stage, and keeps
+ * adding, showing, hiding, checking and removing those scenes, while asking about
+ * the scenes of the other workers as well. None of it runs on the JavaFX
+ * Application Thread, so every change has to go through the command queue.
+ * Any exception that comes out of Switcher, on a worker or on the JavaFX
+ * Application Thread, counts as a failure.
+ *
+ * Every worker also keeps track of what its own calls should have left behind,
+ * since the command queue applies them in order: which of its scenes exist, and
+ * which one is showing on its Stage. Once all workers are done, that is compared
+ * with what Switcher says, once from a worker thread, which reads the published
+ * snapshot, and once from the JavaFX Application Thread, which reads the live state.
+ * Any scene where they disagree counts as a failure too.
+ */
+public class Main extends Application {
+
+	private static final int THREADS           = 8;
+	private static final int ROUNDS            = 2000;
+	private static final int SCENES_PER_THREAD = 20;
+	private static final int DEFAULT_SCENE     = 1;
+	private static final int FIRST_SCENE_ID    = 1000;
+	private static final int FIRST_STAGE_ID    = 500;
+
+	private final AtomicInteger failures = new AtomicInteger();
+	private final Worker[]      workers  = new Worker[THREADS];
+
+	/**
+	 * What one worker's calls should have done to its own scenes.
+	 */
+	private static final class Worker {
+
+		private final int       firstID;
+		private final int       stageID;
+		private final boolean[] exists  = new boolean[SCENES_PER_THREAD];
+		private       int       shownID = -1;
+
+		Worker(int firstID, int stageID) {
+			this.firstID = firstID;
+			this.stageID = stageID;
+		}
+
+		void added(int sceneID) {
+			exists[sceneID - firstID] = true;
+			if (shownID == sceneID) shownID = -1;
+		}
+
+		void removed(int sceneID) {
+			exists[sceneID - firstID] = false;
+			if (shownID == sceneID) shownID = -1;
+		}
+
+		void hidden(int sceneID) {
+			if (shownID == sceneID) shownID = -1;
+		}
+
+		void shown(int sceneID) {
+			if (exists[sceneID - firstID]) shownID = sceneID;
+		}
+	}
+
+	@Override
+	public void start(Stage primaryStage) {
+		Thread.currentThread().setUncaughtExceptionHandler((thread, e) -> fail(e));
+		Switcher.init(primaryStage);
+		Switcher.addScene(DEFAULT_SCENE, new VBox(new Label("Stress test")), 300.0, 100.0);
+		Switcher.showScene(DEFAULT_SCENE);
+
+		CountDownLatch done = new CountDownLatch(THREADS);
+		for (int t = 0; t < THREADS; t++) {
+			Worker worker = new Worker(FIRST_SCENE_ID + (t * SCENES_PER_THREAD), FIRST_STAGE_ID + t);
+			workers[t] = worker;
+			Thread thread = new Thread(() -> {
+				try {work(worker);}
+				catch (RuntimeException e) {fail(e);}
+				finally {done.countDown();}
+			}, "Stress-" + t);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		Thread waiter = new Thread(() -> {
+			try {
+				done.await();
+				// Once this runs, every queued command has been applied and the snapshot published
+				CountDownLatch drained = new CountDownLatch(1);
+				Platform.runLater(drained::countDown);
+				drained.await();
+			}
+			catch (InterruptedException ignored) {}
+			checkEndState("snapshot");
+			Platform.runLater(() -> {
+				checkEndState("live state");
+				check();
+			});
+		}, "Stress-Waiter");
+		waiter.setDaemon(true);
+		waiter.start();
+	}
+
+	private void work(Worker worker) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int               lastID = FIRST_SCENE_ID + (THREADS * SCENES_PER_THREAD);
+		for (int round = 0; round < ROUNDS; round++) {
+			int sceneID = worker.firstID + random.nextInt(SCENES_PER_THREAD);
+			switch (random.nextInt(7)) {
+				case 0:
+					Switcher.addScene(sceneID, worker.stageID, new VBox(new Label("Scene " + sceneID)), 200.0, 80.0);
+					worker.added(sceneID);
+					break;
+				case 1:
+					Switcher.addScene(sceneID, worker.stageID, () -> new VBox(new Label("Built " + sceneID)), 200.0, 80.0);
+					worker.added(sceneID);
+					break;
+				case 2:
+					Switcher.removeScene(sceneID);
+					worker.removed(sceneID);
+					break;
+				case 3:
+					Switcher.hide(sceneID);
+					worker.hidden(sceneID);
+					break;
+				case 4:
+					Switcher.showScene(sceneID);
+					worker.shown(sceneID);
+					break;
+				default:
+					int otherID = FIRST_SCENE_ID + random.nextInt(lastID - FIRST_SCENE_ID);
+					Switcher.visible(otherID);
+					Switcher.isShowing(otherID);
+					Switcher.visible();
+					Switcher.lastSceneAvailable();
+			}
+		}
+	}
+
+	/**
+	 * getStageForScene is null exactly when the scene does not exist, and does not
+	 * print a warning when it does not, which makes it the quiet way to ask.
+	 */
+	private void checkEndState(String source) {
+		int wrong = 0;
+		for (Worker worker : workers) {
+			for (int i = 0; i < SCENES_PER_THREAD; i++) {
+				int     sceneID = worker.firstID + i;
+				boolean exists  = Switcher.getStageForScene(sceneID) != null;
+				boolean showing = Switcher.isShowing(sceneID);
+				if (exists != worker.exists[i] || showing != (worker.shownID == sceneID)) {
+					System.err.println(source + ": sceneID " + sceneID + " exists=" + exists + " showing=" + showing + ", expected exists=" + worker.exists[i] + " showing=" + (worker.shownID == sceneID));
+					wrong++;
+				}
+			}
+		}
+		if (wrong > 0) failures.addAndGet(wrong);
+	}
+
+	private void fail(Throwable e) {
+		failures.incrementAndGet();
+		e.printStackTrace();
+	}
+
+	private void check() {
+		int failed = failures.get();
+		System.out.println(failed + " failures from " + THREADS + " threads making " + ROUNDS + " calls each");
+		System.out.println((failed == 0) ? "PASS" : "FAIL");
+		Platform.exit();
+		System.exit(failed == 0 ? 0 : 1);
+	}
+
+	public static void main(String[] args) {
+		Application.launch(Main.class, args);
+	}
+}
@@ -0,0 +1,17 @@
+package com.simtechdata.switcher.benchmarks;
+
+/**
+ * JVM arguments that make JavaFX run on Monocle's Headless platform with
+ * software rendering, so the benchmarks run on a CI box with no display.
+ * Each benchmark class appends them to its forked JVM.
+ */
+final class Headless {
+
+	static final String GLASS_PLATFORM   = "-Dglass.platform=Monocle";
+	static final String MONOCLE_PLATFORM = "-Dmonocle.platform=Headless";
+	static final String PRISM_ORDER      = "-Dprism.order=sw";
+	static final String PRISM_TEXT       = "-Dprism.text=t2k";
+	static final String AWT_HEADLESS     = "-Djava.awt.headless=true";
+
+	private Headless() {}
+}
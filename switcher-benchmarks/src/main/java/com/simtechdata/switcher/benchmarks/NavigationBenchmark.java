@@ -0,0 +1,84 @@
+package com.simtechdata.switcher.benchmarks;
+
+import com.simtechdata.Switcher;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moving between scenes on the default Stage while Switcher holds sceneCount
+ * scenes. The benchmarks cycle through the first VISITED of them, so after
+ * warmup every scene they show is already built and the numbers are for
+ * switching, not for building. rootSwapping compares giving every scene its
+ * own Scene with swapping roots inside one Scene per Stage. Run with -prof gc
+ * to compare what a switch allocates as well, see the README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {Headless.GLASS_PLATFORM, Headless.MONOCLE_PLATFORM, Headless.PRISM_ORDER, Headless.PRISM_TEXT, Headless.AWT_HEADLESS})
+public class NavigationBenchmark {
+
+	static final int OPS     = 100;
+	static final int VISITED = 10;
+
+	@Param({"10", "1000", "100000"})
+	public int sceneCount;
+
+	@Param({"false", "true"})
+	public boolean rootSwapping;
+
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		FxThread.start();
+		FxThread.run(() -> {
+			Switcher.setRootSwapping(rootSwapping);
+			for (int sceneID = 0; sceneID < sceneCount; sceneID++) {
+				int id = sceneID;
+				Switcher.addScene(sceneID, () -> new VBox(new Label("Scene " + id)), 300.0, 200.0);
+			}
+			Switcher.showScene(0);
+		});
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		FxThread.run(() -> Switcher.hide(cursor));
+	}
+
+	private int nextSceneID() {
+		cursor = (cursor + 1) % Math.min(VISITED, sceneCount);
+		return cursor;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public void showScene() {
+		FxThread.run(() -> {
+			for (int i = 0; i < OPS; i++) {
+				Switcher.showScene(nextSceneID());
+			}
+		});
+	}
+
+	/**
+	 * Each operation shows a new scene and goes back to the one before it,
+	 * which is what a Back button does after every forward step.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public void showLastScene() {
+		FxThread.run(() -> {
+			for (int i = 0; i < OPS; i++) {
+				Switcher.showScene(nextSceneID());
+				Switcher.showLastScene();
+			}
+		});
+	}
+}
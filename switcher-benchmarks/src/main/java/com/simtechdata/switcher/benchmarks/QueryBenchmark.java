@@ -0,0 +1,64 @@
+package com.simtechdata.switcher.benchmarks;
+
+import com.simtechdata.Switcher;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The questions that monitoring and UI code ask Switcher all the time,
+ * asked from the benchmark thread the way a telemetry thread would,
+ * while Switcher holds sceneCount scenes and one of them is showing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {Headless.GLASS_PLATFORM, Headless.MONOCLE_PLATFORM, Headless.PRISM_ORDER, Headless.PRISM_TEXT, Headless.AWT_HEADLESS})
+public class QueryBenchmark {
+
+	@Param({"10", "1000", "100000"})
+	public int sceneCount;
+
+	private Integer[] sceneIDs;
+	private int       cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		FxThread.start();
+		sceneIDs = new Integer[sceneCount];
+		for (int i = 0; i < sceneCount; i++) {
+			sceneIDs[i] = i;
+		}
+		FxThread.run(() -> {
+			for (int sceneID = 0; sceneID < sceneCount; sceneID++) {
+				Switcher.addScene(sceneID, StackPane::new, 300.0, 200.0);
+			}
+			Switcher.showScene(0);
+		});
+	}
+
+	private Integer nextSceneID() {
+		Integer sceneID = sceneIDs[cursor];
+		cursor = (cursor + 1) % sceneCount;
+		return sceneID;
+	}
+
+	@Benchmark
+	public boolean visible() {
+		return Switcher.visible();
+	}
+
+	@Benchmark
+	public boolean isShowing() {
+		return Switcher.isShowing(nextSceneID());
+	}
+
+	@Benchmark
+	public Stage getStageForScene() {
+		return Switcher.getStageForScene(nextSceneID());
+	}
+}
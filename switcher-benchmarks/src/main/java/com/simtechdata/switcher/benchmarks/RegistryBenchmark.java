@@ -0,0 +1,90 @@
+package com.simtechdata.switcher.benchmarks;
+
+import com.simtechdata.Switcher;
+import javafx.scene.Parent;
+import javafx.scene.layout.StackPane;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Adding and removing scenes and stages while Switcher already holds
+ * sceneCount scenes. Every benchmark does OPS operations in one trip to
+ * the JavaFX Application Thread, so the cost of getting there is spread
+ * out instead of drowning out the operation itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {Headless.GLASS_PLATFORM, Headless.MONOCLE_PLATFORM, Headless.PRISM_ORDER, Headless.PRISM_TEXT, Headless.AWT_HEADLESS})
+public class RegistryBenchmark {
+
+	static final         int              OPS           = 100;
+	private static final Supplier<Parent> ROOT_FACTORY  = StackPane::new;
+	private static final int              FIRST_STAGEID = 1_000_000;
+
+	@Param({"10", "1000", "100000"})
+	public int sceneCount;
+
+	private int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		FxThread.start();
+		FxThread.run(() -> {
+			for (int sceneID = 0; sceneID < sceneCount; sceneID++) {
+				Switcher.addScene(sceneID, ROOT_FACTORY, 300.0, 200.0);
+			}
+		});
+	}
+
+	/**
+	 * Adds a new sceneID and takes it back out, so the registry stays at sceneCount.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public void addScene() {
+		FxThread.run(() -> {
+			for (int i = 0; i < OPS; i++) {
+				int sceneID = sceneCount + i;
+				Switcher.addScene(sceneID, ROOT_FACTORY, 300.0, 200.0);
+				Switcher.removeScene(sceneID);
+			}
+		});
+	}
+
+	/**
+	 * Adds a scene again under a sceneID that is already registered, which replaces it.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public void replaceScene() {
+		FxThread.run(() -> {
+			for (int i = 0; i < OPS; i++) {
+				Switcher.addScene(cursor, ROOT_FACTORY, 300.0, 200.0);
+				cursor = (cursor + 1) % sceneCount;
+			}
+		});
+	}
+
+	/**
+	 * Adds a scene on a Stage of its own, which makes Switcher create the Stage,
+	 * then removes the scene and the Stage again.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public void removeStage() {
+		FxThread.run(() -> {
+			for (int i = 0; i < OPS; i++) {
+				int sceneID = sceneCount + i;
+				int stageID = FIRST_STAGEID + i;
+				Switcher.addScene(sceneID, stageID, ROOT_FACTORY, 300.0, 200.0);
+				Switcher.removeScene(sceneID);
+				Switcher.removeStage(stageID);
+			}
+		});
+	}
+}